@@ -4,11 +4,23 @@
 USE facility_feedback_helpdesk_request_system_db;
 GO
 
+-- Sequences for tables with pooled ids (INCREMENT BY must match allocationSize in the entities).
+-- Existing databases with IDENTITY ids: run migrate_identity_to_sequences.sql instead.
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'users_seq')
+    CREATE SEQUENCE users_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'students_seq')
+    CREATE SEQUENCE students_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'staff_seq')
+    CREATE SEQUENCE staff_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'tickets_seq')
+    CREATE SEQUENCE tickets_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+GO
+
 -- Table: users
 IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'[dbo].[users]') AND type in (N'U'))
 BEGIN
     CREATE TABLE users (
-        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        id BIGINT PRIMARY KEY,
         full_name NVARCHAR(100) NOT NULL,
         email NVARCHAR(100) NOT NULL UNIQUE,
         password NVARCHAR(255) NOT NULL,
@@ -22,7 +34,7 @@ GO
 IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'[dbo].[students]') AND type in (N'U'))
 BEGIN
     CREATE TABLE students (
-        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        id BIGINT PRIMARY KEY,
         student_code NVARCHAR(20) NOT NULL UNIQUE,
         class_name NVARCHAR(50) NOT NULL,
         user_id BIGINT NOT NULL UNIQUE,
@@ -36,7 +48,7 @@ GO
 IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'[dbo].[staff]') AND type in (N'U'))
 BEGIN
     CREATE TABLE staff (
-        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        id BIGINT PRIMARY KEY,
         position NVARCHAR(100) NOT NULL,
         user_id BIGINT NOT NULL UNIQUE,
         FOREIGN KEY (user_id) REFERENCES users(id)
@@ -87,17 +99,25 @@ GO
 IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'[dbo].[tickets]') AND type in (N'U'))
 BEGIN
     CREATE TABLE tickets (
-        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        id BIGINT PRIMARY KEY,
         subject NVARCHAR(200) NOT NULL,
         description NVARCHAR(MAX) NOT NULL,
         priority NVARCHAR(20) NOT NULL,
         status NVARCHAR(20) NOT NULL,
         created_at DATETIME2 NOT NULL,
+        updated_at DATETIME2,
+        due_at DATETIME2,
         created_by_id BIGINT NOT NULL,
+        assigned_to_id BIGINT,
         department_id BIGINT,
         room_id BIGINT,
         category_id BIGINT,
+        suggested_category NVARCHAR(100),
+        suggested_priority NVARCHAR(20),
+        suggestion_confidence FLOAT,
+        ai_triaged BIT,
         FOREIGN KEY (created_by_id) REFERENCES users(id),
+        FOREIGN KEY (assigned_to_id) REFERENCES users(id),
         FOREIGN KEY (department_id) REFERENCES departments(id),
         FOREIGN KEY (room_id) REFERENCES rooms(id),
         FOREIGN KEY (category_id) REFERENCES feedback_categories(id)
@@ -106,6 +126,48 @@ BEGIN
 END
 GO
 
+-- Table: maintenance_markers (one-off startup tasks that have completed)
+IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'[dbo].[maintenance_markers]') AND type in (N'U'))
+BEGIN
+    CREATE TABLE maintenance_markers (
+        name NVARCHAR(100) PRIMARY KEY,
+        completed_at DATETIME2 NOT NULL
+    );
+    PRINT 'Table maintenance_markers created successfully';
+END
+GO
+
+-- Table: ticket_summaries (AI summary per ticket, up to last_comment_id)
+IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'[dbo].[ticket_summaries]') AND type in (N'U'))
+BEGIN
+    CREATE TABLE ticket_summaries (
+        ticket_id BIGINT PRIMARY KEY,
+        summary NVARCHAR(MAX) NOT NULL,
+        last_comment_id BIGINT,
+        comment_count INT NOT NULL,
+        updated_at DATETIME2 NOT NULL,
+        FOREIGN KEY (ticket_id) REFERENCES tickets(id) ON DELETE CASCADE
+    );
+    PRINT 'Table ticket_summaries created successfully';
+END
+GO
+
+-- Indexes for keyset (cursor) pagination of ticket lists
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_tickets_created_at_id' AND object_id = OBJECT_ID(N'[dbo].[tickets]'))
+    CREATE INDEX idx_tickets_created_at_id ON tickets (created_at, id);
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_tickets_status_created_at_id' AND object_id = OBJECT_ID(N'[dbo].[tickets]'))
+    CREATE INDEX idx_tickets_status_created_at_id ON tickets (status, created_at, id);
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_tickets_created_by_created_at_id' AND object_id = OBJECT_ID(N'[dbo].[tickets]'))
+    CREATE INDEX idx_tickets_created_by_created_at_id ON tickets (created_by_id, created_at, id);
+GO
+
+-- Indexes for the "next ticket to work" queue
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_tickets_status_due_at' AND object_id = OBJECT_ID(N'[dbo].[tickets]'))
+    CREATE INDEX idx_tickets_status_due_at ON tickets (status, due_at);
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_tickets_assigned_to_due_at' AND object_id = OBJECT_ID(N'[dbo].[tickets]'))
+    CREATE INDEX idx_tickets_assigned_to_due_at ON tickets (assigned_to_id, due_at);
+GO
+
 PRINT 'All tables created successfully!';
 GO
 
@@ -0,0 +1,160 @@
+-- SQL Script to move users, students, staff and tickets from IDENTITY ids to sequences
+-- Run once, with the application stopped, on databases created before sequence ids.
+-- Hibernate cannot batch inserts into IDENTITY tables; the entities now use pooled
+-- sequences with allocationSize = 50, so every sequence here increments by 50.
+
+USE facility_feedback_helpdesk_request_system_db;
+GO
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+-- Add ticket columns that older databases may not have yet, so the copy below can name them.
+-- They must exist before that batch is compiled, hence the separate batch.
+IF COL_LENGTH(N'tickets', N'due_at') IS NULL ALTER TABLE tickets ADD due_at DATETIME2;
+IF COL_LENGTH(N'tickets', N'suggested_category') IS NULL ALTER TABLE tickets ADD suggested_category NVARCHAR(100);
+IF COL_LENGTH(N'tickets', N'suggested_priority') IS NULL ALTER TABLE tickets ADD suggested_priority NVARCHAR(20);
+IF COL_LENGTH(N'tickets', N'suggestion_confidence') IS NULL ALTER TABLE tickets ADD suggestion_confidence FLOAT;
+IF COL_LENGTH(N'tickets', N'ai_triaged') IS NULL ALTER TABLE tickets ADD ai_triaged BIT;
+GO
+
+IF @@TRANCOUNT = 0 BEGIN PRINT 'Migration aborted, nothing was changed'; SET NOEXEC ON; END
+GO
+
+-- Drop foreign keys that point at, or live on, the tables being rebuilt
+DECLARE @sql NVARCHAR(MAX) = N'';
+SELECT @sql += N'ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.parent_object_id)) + N'.'
+             + QUOTENAME(OBJECT_NAME(fk.parent_object_id)) + N' DROP CONSTRAINT ' + QUOTENAME(fk.name) + N';'
+FROM sys.foreign_keys fk
+WHERE OBJECT_NAME(fk.referenced_object_id) IN (N'users', N'students', N'staff', N'tickets')
+   OR OBJECT_NAME(fk.parent_object_id) IN (N'users', N'students', N'staff', N'tickets');
+EXEC sp_executesql @sql;
+
+-- Keep a copy of the data, then recreate each table without IDENTITY
+SELECT id, full_name, email, password, role INTO #users FROM users;
+SELECT id, student_code, class_name, user_id INTO #students FROM students;
+SELECT id, position, user_id INTO #staff FROM staff;
+SELECT id, subject, description, priority, status, created_at, updated_at, due_at,
+       created_by_id, assigned_to_id, department_id, room_id, category_id,
+       suggested_category, suggested_priority, suggestion_confidence, ai_triaged
+INTO #tickets FROM tickets;
+
+DROP TABLE tickets;
+DROP TABLE students;
+DROP TABLE staff;
+DROP TABLE users;
+GO
+
+-- Stop here if anything above failed (XACT_ABORT has rolled the transaction back)
+IF @@TRANCOUNT = 0 BEGIN PRINT 'Migration aborted, nothing was changed'; SET NOEXEC ON; END
+GO
+
+CREATE TABLE users (
+    id BIGINT PRIMARY KEY,
+    full_name NVARCHAR(100) NOT NULL,
+    email NVARCHAR(100) NOT NULL UNIQUE,
+    password NVARCHAR(255) NOT NULL,
+    role NVARCHAR(20) NOT NULL
+);
+INSERT INTO users (id, full_name, email, password, role)
+SELECT id, full_name, email, password, role FROM #users;
+
+CREATE TABLE students (
+    id BIGINT PRIMARY KEY,
+    student_code NVARCHAR(20) NOT NULL UNIQUE,
+    class_name NVARCHAR(50) NOT NULL,
+    user_id BIGINT NOT NULL UNIQUE,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+INSERT INTO students (id, student_code, class_name, user_id)
+SELECT id, student_code, class_name, user_id FROM #students;
+
+CREATE TABLE staff (
+    id BIGINT PRIMARY KEY,
+    position NVARCHAR(100) NOT NULL,
+    user_id BIGINT NOT NULL UNIQUE,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+INSERT INTO staff (id, position, user_id)
+SELECT id, position, user_id FROM #staff;
+
+CREATE TABLE tickets (
+    id BIGINT PRIMARY KEY,
+    subject NVARCHAR(200) NOT NULL,
+    description NVARCHAR(MAX) NOT NULL,
+    priority NVARCHAR(20) NOT NULL,
+    status NVARCHAR(20) NOT NULL,
+    created_at DATETIME2 NOT NULL,
+    updated_at DATETIME2,
+    due_at DATETIME2,
+    created_by_id BIGINT NOT NULL,
+    assigned_to_id BIGINT,
+    department_id BIGINT,
+    room_id BIGINT,
+    category_id BIGINT,
+    suggested_category NVARCHAR(100),
+    suggested_priority NVARCHAR(20),
+    suggestion_confidence FLOAT,
+    ai_triaged BIT,
+    FOREIGN KEY (created_by_id) REFERENCES users(id),
+    FOREIGN KEY (assigned_to_id) REFERENCES users(id),
+    FOREIGN KEY (department_id) REFERENCES departments(id),
+    FOREIGN KEY (room_id) REFERENCES rooms(id),
+    FOREIGN KEY (category_id) REFERENCES feedback_categories(id)
+);
+INSERT INTO tickets (id, subject, description, priority, status, created_at, updated_at, due_at,
+                     created_by_id, assigned_to_id, department_id, room_id, category_id,
+                     suggested_category, suggested_priority, suggestion_confidence, ai_triaged)
+SELECT id, subject, description, priority, status, created_at, updated_at, due_at,
+       created_by_id, assigned_to_id, department_id, room_id, category_id,
+       suggested_category, suggested_priority, suggestion_confidence, ai_triaged
+FROM #tickets;
+
+CREATE INDEX idx_tickets_created_at_id ON tickets (created_at, id);
+CREATE INDEX idx_tickets_status_created_at_id ON tickets (status, created_at, id);
+CREATE INDEX idx_tickets_created_by_created_at_id ON tickets (created_by_id, created_at, id);
+CREATE INDEX idx_tickets_status_due_at ON tickets (status, due_at);
+CREATE INDEX idx_tickets_assigned_to_due_at ON tickets (assigned_to_id, due_at);
+
+-- Comments are not rebuilt, only re-linked
+IF OBJECT_ID(N'[dbo].[comments]', N'U') IS NOT NULL
+BEGIN
+    ALTER TABLE comments ADD FOREIGN KEY (ticket_id) REFERENCES tickets(id);
+    ALTER TABLE comments ADD FOREIGN KEY (user_id) REFERENCES users(id);
+END
+GO
+
+IF @@TRANCOUNT = 0 BEGIN PRINT 'Migration aborted, nothing was changed'; SET NOEXEC ON; END
+GO
+
+-- Hibernate's pooled optimizer treats each sequence value as the top of a block of 50,
+-- so start at MAX(id) + 50 to keep the first block clear of existing ids.
+-- Any sequence Hibernate created on an earlier start (at 1) is replaced.
+DECLARE @ddl NVARCHAR(400);
+
+IF EXISTS (SELECT * FROM sys.sequences WHERE name = 'users_seq') DROP SEQUENCE users_seq;
+SELECT @ddl = N'CREATE SEQUENCE users_seq AS BIGINT START WITH '
+            + CAST(ISNULL(MAX(id), 0) + 50 AS NVARCHAR(20)) + N' INCREMENT BY 50;' FROM users;
+EXEC sp_executesql @ddl;
+
+IF EXISTS (SELECT * FROM sys.sequences WHERE name = 'students_seq') DROP SEQUENCE students_seq;
+SELECT @ddl = N'CREATE SEQUENCE students_seq AS BIGINT START WITH '
+            + CAST(ISNULL(MAX(id), 0) + 50 AS NVARCHAR(20)) + N' INCREMENT BY 50;' FROM students;
+EXEC sp_executesql @ddl;
+
+IF EXISTS (SELECT * FROM sys.sequences WHERE name = 'staff_seq') DROP SEQUENCE staff_seq;
+SELECT @ddl = N'CREATE SEQUENCE staff_seq AS BIGINT START WITH '
+            + CAST(ISNULL(MAX(id), 0) + 50 AS NVARCHAR(20)) + N' INCREMENT BY 50;' FROM staff;
+EXEC sp_executesql @ddl;
+
+IF EXISTS (SELECT * FROM sys.sequences WHERE name = 'tickets_seq') DROP SEQUENCE tickets_seq;
+SELECT @ddl = N'CREATE SEQUENCE tickets_seq AS BIGINT START WITH '
+            + CAST(ISNULL(MAX(id), 0) + 50 AS NVARCHAR(20)) + N' INCREMENT BY 50;' FROM tickets;
+EXEC sp_executesql @ddl;
+
+COMMIT TRANSACTION;
+PRINT 'Migrated users, students, staff and tickets to sequence ids successfully!';
+GO
+
+SET NOEXEC OFF;
+GO
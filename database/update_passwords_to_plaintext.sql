@@ -10,6 +10,10 @@ UPDATE users SET password = '123456' WHERE email = 'student1@fpt.edu.vn';
 UPDATE users SET password = 'staff123' WHERE email = 'staff@fpt.edu.vn';
 UPDATE users SET password = 'admin123' WHERE email = 'admin@fpt.edu.vn';
 
+-- Let the startup password upgrade run again on the next boot
+IF OBJECT_ID(N'[dbo].[maintenance_markers]') IS NOT NULL
+    DELETE FROM maintenance_markers WHERE name = 'bcrypt-password-upgrade';
+
 -- Verify the update
 SELECT id, email, full_name, password FROM users;
 GO
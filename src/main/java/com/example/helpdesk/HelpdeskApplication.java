@@ -2,6 +2,7 @@ package com.example.helpdesk;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Facility Feedback & Helpdesk Request System.
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @author Facility Helpdesk Team
  */
 @SpringBootApplication
+@EnableScheduling
 public class HelpdeskApplication {
 
     public static void main(String[] args) {
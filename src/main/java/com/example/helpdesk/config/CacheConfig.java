@@ -0,0 +1,43 @@
+package com.example.helpdesk.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache configuration for reference data (departments, categories, rooms).
+ * This data changes a few times a year but is read on every ticket submission.
+ * Caches are bounded, expire as a safety net, and are invalidated explicitly
+ * by {@link ReferenceDataCacheListener} whenever the underlying rows change.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String DEPARTMENT_BY_ID = "departmentById";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_BY_ID = "categoryById";
+    public static final String ROOMS_BY_DEPARTMENT = "roomsByDepartment";
+
+    /**
+     * Caffeine-backed cache manager with per-cache hit/miss statistics.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                DEPARTMENTS, DEPARTMENT_BY_ID, CATEGORIES, CATEGORY_BY_ID, ROOMS_BY_DEPARTMENT);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofHours(6))
+                .recordStats());
+        return cacheManager;
+    }
+}
@@ -10,6 +10,8 @@ import com.example.helpdesk.repository.FeedbackCategoryRepository;
 import com.example.helpdesk.repository.RoomRepository;
 import com.example.helpdesk.repository.StudentRepository;
 import com.example.helpdesk.repository.UserRepository;
+import com.example.helpdesk.service.PasswordUpgradeService;
+import com.example.helpdesk.service.TicketService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
@@ -33,6 +35,8 @@ public class DataInitializer implements CommandLineRunner {
     private final RoomRepository roomRepository;
     private final StudentRepository studentRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TicketService ticketService;
+    private final PasswordUpgradeService passwordUpgradeService;
 
     public DataInitializer(
             UserRepository userRepository,
@@ -40,40 +44,44 @@ public class DataInitializer implements CommandLineRunner {
             FeedbackCategoryRepository categoryRepository,
             RoomRepository roomRepository,
             StudentRepository studentRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            TicketService ticketService,
+            PasswordUpgradeService passwordUpgradeService) {
         this.userRepository = userRepository;
         this.departmentRepository = departmentRepository;
         this.categoryRepository = categoryRepository;
         this.roomRepository = roomRepository;
         this.studentRepository = studentRepository;
         this.passwordEncoder = passwordEncoder;
+        this.ticketService = ticketService;
+        this.passwordUpgradeService = passwordUpgradeService;
     }
 
     @Override
     public void run(String... args) {
         logger.info("Initializing sample data...");
         createUsers();
-        upgradePasswords(); // Upgrade any plaintext passwords to BCrypt
+        passwordUpgradeService.upgradePlaintextPasswords(); // One-off; skipped once its marker exists
         Department itDept = createDepartments();
         createRooms(itDept);
         createCategories();
+        backfillDueDates();
         logger.info("Data initialization completed");
     }
 
-    private void upgradePasswords() {
-        java.util.List<User> users = userRepository.findAll();
-        int upgradedCount = 0;
-        for (User user : users) {
-            // Check if password is NOT a BCrypt hash (BCrypt hashes start with $2a$ or $2b$)
-            if (user.getPassword() != null && !user.getPassword().startsWith("$2a$")) {
-                logger.info("Upgrading plaintext password to BCrypt for user: {}", user.getEmail());
-                user.setPassword(passwordEncoder.encode(user.getPassword()));
-                userRepository.save(user);
-                upgradedCount++;
-            }
-        }
-        if (upgradedCount > 0) {
-            logger.info("Upgraded {} plaintext passwords to BCrypt.", upgradedCount);
+    /**
+     * Give open tickets created before due dates existed a due date, one batch per transaction.
+     * A no-op query once every open ticket has one.
+     */
+    private void backfillDueDates() {
+        int total = 0;
+        int updated;
+        do {
+            updated = ticketService.backfillDueDates(500);
+            total += updated;
+        } while (updated > 0);
+        if (total > 0) {
+            logger.info("Backfilled due dates for {} open tickets.", total);
         }
     }
 
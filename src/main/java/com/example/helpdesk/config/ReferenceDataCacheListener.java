@@ -0,0 +1,73 @@
+package com.example.helpdesk.config;
+
+import com.example.helpdesk.entity.Department;
+import com.example.helpdesk.entity.FeedbackCategory;
+import com.example.helpdesk.entity.Room;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that invalidates reference data caches whenever a
+ * department, category or room is inserted, updated or deleted.
+ * 
+ * The JPA callbacks run at flush, before the transaction commits; a read in that gap
+ * would reload the old rows into the cache and keep them until expiry. So inside a
+ * transaction the caches are cleared once it has committed.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Component
+public class ReferenceDataCacheListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCacheListener.class);
+
+    private final CacheManager cacheManager;
+
+    public ReferenceDataCacheListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Department) {
+            clear(CacheConfig.DEPARTMENTS, CacheConfig.DEPARTMENT_BY_ID, CacheConfig.ROOMS_BY_DEPARTMENT);
+        } else if (entity instanceof FeedbackCategory) {
+            clear(CacheConfig.CATEGORIES, CacheConfig.CATEGORY_BY_ID);
+        } else if (entity instanceof Room) {
+            clear(CacheConfig.ROOMS_BY_DEPARTMENT);
+        }
+    }
+
+    private void clear(String... cacheNames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearNow(cacheNames);
+                }
+            });
+        } else {
+            clearNow(cacheNames);
+        }
+    }
+
+    private void clearNow(String... cacheNames) {
+        for (String name : cacheNames) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        logger.debug("Invalidated reference data caches: {}", (Object) cacheNames);
+    }
+}
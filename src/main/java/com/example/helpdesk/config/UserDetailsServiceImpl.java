@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 /**
  * Custom UserDetailsService implementation for Spring Security.
  * Loads user details from the database for authentication.
+ * This is the only per-login user lookup; see {@link UserPrincipal}.
  * 
  * @author Facility Helpdesk Team
  */
@@ -45,12 +46,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         logger.debug("User found: {} with role: {}", user.getEmail(), user.getRole());
 
-        // Create Spring Security UserDetails from our User entity
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities("ROLE_" + user.getRole())
-                .build();
+        // Keep id, name and role on the principal so requests need no further lookup
+        return new UserPrincipal(user);
     }
 }
 
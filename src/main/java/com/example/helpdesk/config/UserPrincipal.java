@@ -0,0 +1,36 @@
+package com.example.helpdesk.config;
+
+import com.example.helpdesk.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Authenticated principal stored in the security context.
+ * Carries the user's id, full name and role so request handlers do not
+ * have to look the user up by email on every request.
+ * 
+ * <p>Equality is inherited from Spring's {@code User} (by username), which
+ * keeps the session registry's one-session-per-user check working.</p>
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Getter
+public class UserPrincipal extends org.springframework.security.core.userdetails.User {
+
+    private final Long id;
+    private final String fullName;
+    private final String role;
+
+    public UserPrincipal(User user) {
+        super(user.getEmail(), user.getPassword(), List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole())));
+        this.id = user.getId();
+        this.fullName = user.getFullName();
+        this.role = user.getRole();
+    }
+
+    public String getEmail() {
+        return getUsername();
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.helpdesk.controller;
 
+import com.example.helpdesk.config.UserPrincipal;
 import com.example.helpdesk.entity.Comment;
 import com.example.helpdesk.entity.Ticket;
 import com.example.helpdesk.entity.User;
 import com.example.helpdesk.service.AiService;
+import com.example.helpdesk.repository.TicketRow;
 import com.example.helpdesk.service.CommentService;
+import com.example.helpdesk.service.CursorPage;
 import com.example.helpdesk.service.ExcelImportService;
+import com.example.helpdesk.service.FeedbackCategoryService;
+import com.example.helpdesk.service.ImportJob;
+import com.example.helpdesk.service.ImportJobService;
 import com.example.helpdesk.service.TicketService;
+import com.example.helpdesk.service.TicketStatisticsService;
 import com.example.helpdesk.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,13 +30,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -40,20 +54,29 @@ public class AdminController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
     private final TicketService ticketService;
     private final UserService userService;
     private final ExcelImportService excelImportService;
     private final CommentService commentService;
     private final AiService aiService;
+    private final TicketStatisticsService ticketStatisticsService;
+    private final FeedbackCategoryService categoryService;
+    private final ImportJobService importJobService;
 
     public AdminController(TicketService ticketService, UserService userService,
                            ExcelImportService excelImportService, CommentService commentService,
-                           AiService aiService) {
+                           AiService aiService, TicketStatisticsService ticketStatisticsService,
+                           FeedbackCategoryService categoryService, ImportJobService importJobService) {
         this.ticketService = ticketService;
         this.userService = userService;
         this.excelImportService = excelImportService;
         this.commentService = commentService;
         this.aiService = aiService;
+        this.ticketStatisticsService = ticketStatisticsService;
+        this.categoryService = categoryService;
+        this.importJobService = importJobService;
     }
 
     /**
@@ -71,48 +94,66 @@ public class AdminController {
         boolean isAdmin = authorities.stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
         
-        // Get ticket statistics
-        List<Ticket> allTickets = ticketService.getAllTickets();
-        long totalTickets = allTickets.size();
-        long pendingTickets = ticketService.getTicketsByStatus("CREATED").size() +
-                             ticketService.getTicketsByStatus("ASSIGNED").size();
-        long resolvedTickets = ticketService.getTicketsByStatus("RESOLVED").size() +
-                              ticketService.getTicketsByStatus("CLOSED").size();
-        long overdueTickets = ticketService.getTicketsByStatus("OVERDUE").size();
+        // Get ticket statistics (single aggregate query, no ticket entities loaded)
+        TicketStatisticsService.TicketStatistics stats = ticketStatisticsService.getStatistics();
         
         model.addAttribute("username", authentication.getName());
         model.addAttribute("isAdmin", isAdmin);
-        model.addAttribute("totalTickets", totalTickets);
-        model.addAttribute("pendingTickets", pendingTickets);
-        model.addAttribute("resolvedTickets", resolvedTickets);
-        model.addAttribute("overdueTickets", overdueTickets);
+        model.addAttribute("totalTickets", stats.getTotal());
+        model.addAttribute("pendingTickets", stats.getPending());
+        model.addAttribute("resolvedTickets", stats.getResolved());
+        model.addAttribute("overdueTickets", stats.getOverdue());
         
         return "admin-dashboard";
     }
 
     /**
-     * Display all tickets list for admin/staff.
+     * Display all tickets list for admin/staff, one keyset page at a time.
      * 
      * @param model the model to add attributes
      * @param status optional status filter
+     * @param cursor optional page cursor from a previous page
+     * @param size the page size
      * @return the view name for the tickets list
      */
     @GetMapping("/tickets")
-    public String listTickets(Model model, @RequestParam(required = false) String status) {
+    public String listTickets(Model model,
+                              @RequestParam(required = false) String status,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
         logger.info("Displaying tickets list for admin/staff, filter: {}", status);
 
-        List<Ticket> tickets;
+        CursorPage<TicketRow> page = ticketService.getTicketsPage(status, cursor, size);
         if (status != null && !status.isEmpty()) {
-            tickets = ticketService.getTicketsByStatus(status);
             model.addAttribute("currentFilter", status);
-        } else {
-            tickets = ticketService.getAllTickets();
         }
 
-        model.addAttribute("tickets", tickets);
+        model.addAttribute("tickets", page.getContent());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("prevCursor", page.getPrevCursor());
+        model.addAttribute("pageSize", size);
         return "admin-ticket-list";
     }
 
+    /**
+     * Open the most urgent ticket for the current staff member.
+     * 
+     * @param principal the authenticated staff member
+     * @param redirectAttributes attributes for redirect
+     * @return redirect to the ticket, or back to the dashboard if there is no open work
+     */
+    @GetMapping("/tickets/next")
+    public String nextTicket(@AuthenticationPrincipal UserPrincipal principal, RedirectAttributes redirectAttributes) {
+        logger.info("Finding next ticket to work for {}", principal.getEmail());
+
+        return ticketService.nextWorkItem(principal.getId())
+                .map(ticket -> "redirect:/admin/tickets/" + ticket.getId())
+                .orElseGet(() -> {
+                    redirectAttributes.addFlashAttribute("successMessage", "No open tickets. Nice work!");
+                    return "redirect:/admin/dashboard";
+                });
+    }
+
     /**
      * Display ticket detail for admin/staff.
      * 
@@ -135,6 +176,7 @@ public class AdminController {
         model.addAttribute("ticket", ticket);
         model.addAttribute("comments", comments);
         model.addAttribute("staffList", staffList);
+        model.addAttribute("categories", categoryService.findAll());
         model.addAttribute("aiAvailable", aiService.isAvailable());
 
         return "admin-ticket-detail";
@@ -146,11 +188,11 @@ public class AdminController {
     @PostMapping("/tickets/{id}/comment")
     public String addComment(@PathVariable Long id,
                             @RequestParam String content,
-                            Authentication authentication,
+                            @AuthenticationPrincipal UserPrincipal principal,
                             RedirectAttributes redirectAttributes) {
-        logger.info("Adding comment to ticket {} by {}", id, authentication.getName());
+        logger.info("Adding comment to ticket {} by {}", id, principal.getEmail());
         try {
-            commentService.addComment(id, content, authentication.getName());
+            commentService.addComment(id, content, principal.getId());
             redirectAttributes.addFlashAttribute("successMessage", "Comment added successfully");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
@@ -175,6 +217,42 @@ public class AdminController {
         return "redirect:/admin/tickets/" + id;
     }
 
+    /**
+     * Change ticket category. Recomputes the SLA due date.
+     */
+    @PostMapping("/tickets/{id}/category")
+    public String updateTicketCategory(@PathVariable Long id,
+                                       @RequestParam Long categoryId,
+                                       RedirectAttributes redirectAttributes) {
+        logger.info("Updating ticket {} category to: {}", id, categoryId);
+        try {
+            ticketService.updateTicketCategory(id, categoryId);
+            redirectAttributes.addFlashAttribute("successMessage", "Ticket category updated successfully");
+        } catch (IllegalArgumentException e) {
+            logger.error("Error updating ticket category: {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/tickets/" + id;
+    }
+
+    /**
+     * Change ticket priority. Recomputes the SLA due date.
+     */
+    @PostMapping("/tickets/{id}/priority")
+    public String updateTicketPriority(@PathVariable Long id,
+                                       @RequestParam String priority,
+                                       RedirectAttributes redirectAttributes) {
+        logger.info("Updating ticket {} priority to: {}", id, priority);
+        try {
+            ticketService.updateTicketPriority(id, priority);
+            redirectAttributes.addFlashAttribute("successMessage", "Ticket priority updated to: " + priority);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error updating ticket priority: {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/tickets/" + id;
+    }
+
     /**
      * Update ticket status.
      * 
@@ -337,6 +415,8 @@ public class AdminController {
 
     /**
      * Import users from Excel file (ADMIN ONLY).
+     * The import runs as a background job; progress is polled from
+     * {@link #importProgress(String)}.
      * 
      * @param file the Excel file to import
      * @param redirectAttributes attributes for redirect
@@ -365,39 +445,12 @@ public class AdminController {
         }
 
         try {
-            ExcelImportService.ImportResult result = excelImportService.importUsersFromExcel(file);
-            
-            if (result.getSuccessCount() > 0) {
-                redirectAttributes.addFlashAttribute("successMessage", 
-                        String.format("Successfully imported %d user(s)", result.getSuccessCount()));
-            }
-            
-            if (result.getFailedCount() > 0) {
-                StringBuilder errorMsg = new StringBuilder();
-                errorMsg.append(String.format("Failed to import %d user(s). ", result.getFailedCount()));
-                
-                // Show first 10 errors
-                List<String> errors = result.getErrors();
-                int errorCount = Math.min(10, errors.size());
-                for (int i = 0; i < errorCount; i++) {
-                    errorMsg.append(errors.get(i));
-                    if (i < errorCount - 1) {
-                        errorMsg.append("; ");
-                    }
-                }
-                
-                if (errors.size() > 10) {
-                    errorMsg.append(String.format(" ... and %d more error(s)", errors.size() - 10));
-                }
-                
-                redirectAttributes.addFlashAttribute("errorMessage", errorMsg.toString());
-            }
-
-            // Store all errors in session for detailed view (optional)
-            if (!result.getErrors().isEmpty()) {
-                redirectAttributes.addFlashAttribute("importErrors", result.getErrors());
-            }
-
+            ImportJob job = importJobService.submit(file);
+            redirectAttributes.addFlashAttribute("successMessage",
+                    "Import of " + filename + " started. Progress is shown below.");
+            redirectAttributes.addFlashAttribute("importJobId", job.getId());
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
         } catch (Exception e) {
             logger.error("Error importing users from Excel: {}", e.getMessage(), e);
             redirectAttributes.addFlashAttribute("errorMessage", 
@@ -427,5 +480,66 @@ public class AdminController {
         response.getOutputStream().write(excelBytes);
         response.getOutputStream().flush();
     }
-}
 
+    /**
+     * Progress of a background import job (ADMIN ONLY).
+     * 
+     * @param jobId the import job ID
+     * @return rows processed, failed, throughput and status as JSON
+     */
+    @GetMapping("/users/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<?> importProgress(@PathVariable String jobId) {
+        return importJobService.getJob(jobId)
+                .<ResponseEntity<?>>map(job -> {
+                    ExcelImportService.ImportResult result = job.getResult();
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("jobId", job.getId());
+                    body.put("filename", job.getFilename());
+                    body.put("status", job.getStatus());
+                    body.put("finished", job.isFinished());
+                    body.put("processed", result.getProcessedCount());
+                    body.put("succeeded", result.getSuccessCount());
+                    body.put("failed", result.getFailedCount());
+                    body.put("rowsPerSecond", Math.round(job.getRowsPerSecond()));
+                    body.put("hashesPerSecond", Math.round(result.getHashesPerSecond()));
+                    body.put("errorCount", result.getErrors().size());
+                    return ResponseEntity.ok(body);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Import job not found")));
+    }
+
+    /**
+     * Download the error report of an import job as plain text (ADMIN ONLY).
+     * 
+     * @param jobId the import job ID
+     * @param response the HTTP response
+     * @throws IOException if error writing the report
+     */
+    @GetMapping("/users/import/{jobId}/errors")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void downloadImportErrors(@PathVariable String jobId, HttpServletResponse response) throws IOException {
+        ImportJob job = importJobService.getJob(jobId).orElse(null);
+        if (job == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Import job not found");
+            return;
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append("Import of ").append(job.getFilename()).append(" (").append(job.getStatus()).append(")\n");
+        report.append("Imported: ").append(job.getResult().getSuccessCount())
+                .append(", Failed: ").append(job.getResult().getFailedCount()).append("\n\n");
+        for (String error : job.getResult().getErrors()) {
+            report.append(error).append("\n");
+        }
+        byte[] bytes = report.toString().getBytes(StandardCharsets.UTF_8);
+
+        response.setContentType("text/plain; charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=import_errors_" + jobId + ".txt");
+        response.setContentLength(bytes.length);
+
+        response.getOutputStream().write(bytes);
+        response.getOutputStream().flush();
+    }
+}
@@ -1,16 +1,27 @@
 package com.example.helpdesk.controller;
 
+import com.example.helpdesk.entity.Ticket;
 import com.example.helpdesk.service.AiService;
+import com.example.helpdesk.service.TicketService;
+import com.example.helpdesk.service.TicketSummaryService;
+import com.example.helpdesk.service.TicketTriageQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for AI-powered features.
- * Called via AJAX from frontend pages.
+ * Called via AJAX from frontend pages. Endpoints that call Gemini return a
+ * CompletableFuture, so the servlet thread is released while the call is in flight.
  * 
  * @author Facility Helpdesk Team
  */
@@ -21,78 +32,207 @@ public class AiController {
     private static final Logger logger = LoggerFactory.getLogger(AiController.class);
 
     private final AiService aiService;
+    private final TicketService ticketService;
+    private final TicketSummaryService ticketSummaryService;
+    private final TicketTriageQueue ticketTriageQueue;
 
-    public AiController(AiService aiService) {
+    public AiController(AiService aiService, TicketService ticketService,
+                        TicketSummaryService ticketSummaryService, TicketTriageQueue ticketTriageQueue) {
         this.aiService = aiService;
+        this.ticketService = ticketService;
+        this.ticketSummaryService = ticketSummaryService;
+        this.ticketTriageQueue = ticketTriageQueue;
+    }
+
+    /**
+     * Suggest category and priority together, from one model call.
+     */
+    @PostMapping("/triage")
+    public CompletableFuture<ResponseEntity<?>> triage(@RequestBody Map<String, String> request) {
+        String subject = request.getOrDefault("subject", "");
+        String description = request.getOrDefault("description", "");
+
+        if (subject.isEmpty() && description.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Subject or description is required")));
+        }
+
+        if (!aiService.isSuggestionAvailable()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.ok(Map.of("available", false, "message", "AI service not configured")));
+        }
+
+        return aiService.triage(subject, description)
+                .thenApply(triage -> ResponseEntity.ok(Map.of(
+                        "available", true,
+                        "category", triage != null && triage.category() != null ? triage.category() : "",
+                        "priority", triage != null && triage.priority() != null ? triage.priority() : "MEDIUM",
+                        "confidence", triage != null ? triage.confidence() : 0.0)));
     }
 
     /**
      * Suggest category based on ticket content.
      */
     @PostMapping("/suggest-category")
-    public ResponseEntity<?> suggestCategory(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<?>> suggestCategory(@RequestBody Map<String, String> request) {
         String subject = request.getOrDefault("subject", "");
         String description = request.getOrDefault("description", "");
 
         if (subject.isEmpty() && description.isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Subject or description is required"));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Subject or description is required")));
         }
 
-        if (!aiService.isAvailable()) {
-            return ResponseEntity.ok(Map.of("available", false, "message", "AI service not configured"));
+        if (!aiService.isSuggestionAvailable()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.ok(Map.of("available", false, "message", "AI service not configured")));
         }
 
-        String category = aiService.suggestCategory(subject, description);
-        if (category != null) {
-            return ResponseEntity.ok(Map.of("available", true, "category", category));
-        }
-        return ResponseEntity.ok(Map.of("available", true, "category", ""));
+        return aiService.suggestCategory(subject, description)
+                .thenApply(category -> ResponseEntity.ok(
+                        Map.of("available", true, "category", category != null ? category : "")));
     }
 
     /**
      * Suggest priority based on ticket content.
      */
     @PostMapping("/suggest-priority")
-    public ResponseEntity<?> suggestPriority(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<?>> suggestPriority(@RequestBody Map<String, String> request) {
         String subject = request.getOrDefault("subject", "");
         String description = request.getOrDefault("description", "");
 
-        if (!aiService.isAvailable()) {
-            return ResponseEntity.ok(Map.of("available", false));
+        if (!aiService.isSuggestionAvailable()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("available", false)));
         }
 
-        String priority = aiService.suggestPriority(subject, description);
-        if (priority != null) {
-            return ResponseEntity.ok(Map.of("available", true, "priority", priority.trim().toUpperCase()));
-        }
-        return ResponseEntity.ok(Map.of("available", true, "priority", "MEDIUM"));
+        return aiService.suggestPriority(subject, description)
+                .thenApply(priority -> ResponseEntity.ok(Map.of("available", true,
+                        "priority", priority != null ? priority.trim().toUpperCase() : "MEDIUM")));
     }
 
     /**
      * Suggest a reply for staff responding to a ticket.
      */
     @PostMapping("/suggest-reply")
-    public ResponseEntity<?> suggestReply(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<?>> suggestReply(@RequestBody Map<String, String> request) {
         String subject = request.getOrDefault("subject", "");
         String description = request.getOrDefault("description", "");
         String status = request.getOrDefault("status", "CREATED");
 
         if (!aiService.isAvailable()) {
-            return ResponseEntity.ok(Map.of("available", false));
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("available", false)));
+        }
+
+        return aiService.suggestReply(subject, description, status)
+                .thenApply(reply -> ResponseEntity.ok(
+                        Map.of("available", true, "reply", reply != null ? reply : "")));
+    }
+
+    /**
+     * Stream a reply suggestion for a ticket as server-sent events: "chunk" events
+     * carrying {"text": ...} as Gemini produces it, then "done". Sends "unavailable"
+     * or "error" instead when no reply can be streamed, so the page can fall back to
+     * {@code /suggest-reply}.
+     */
+    @GetMapping(path = "/tickets/{ticketId}/reply-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public SseEmitter streamReply(@PathVariable Long ticketId) {
+        Ticket ticket = ticketService.getTicketById(ticketId);
+        // Uses spring.mvc.async.request-timeout, which is longer than the reply budget
+        SseEmitter emitter = new SseEmitter();
+
+        if (!aiService.isAvailable()) {
+            send(emitter, "unavailable", Map.of("available", false));
+            emitter.complete();
+            return emitter;
         }
 
-        String reply = aiService.suggestReply(subject, description, status);
-        if (reply != null) {
-            return ResponseEntity.ok(Map.of("available", true, "reply", reply));
+        CompletableFuture<Void> stream = aiService.streamReply(ticket.getSubject(), ticket.getDescription(),
+                ticket.getStatus(), chunk -> send(emitter, "chunk", Map.of("text", chunk)));
+        // Client gone or request timed out: stop reading from Gemini
+        emitter.onTimeout(() -> stream.cancel(false));
+        emitter.onError(error -> stream.cancel(false));
+
+        stream.whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    send(emitter, "done", Map.of());
+                } else {
+                    logger.warn("Reply stream for ticket {} ended early: {}", ticketId, error.getMessage());
+                    send(emitter, "error", Map.of("message", "AI could not finish the reply"));
+                }
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                // Client already disconnected
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return ResponseEntity.ok(Map.of("available", true, "reply", ""));
     }
 
     /**
-     * Check if AI service is available.
+     * Summarize a ticket and its conversation. The stored summary is served as is when
+     * no comments were added since it was made, and otherwise updated with only the new ones.
+     */
+    @GetMapping("/tickets/{ticketId}/summary")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public CompletableFuture<ResponseEntity<?>> summarizeTicket(@PathVariable Long ticketId) {
+        Ticket ticket = ticketService.getTicketById(ticketId);
+
+        if (!aiService.isAvailable()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("available", false)));
+        }
+
+        return ticketSummaryService.summarize(ticket)
+                .thenApply(summary -> ResponseEntity.ok(summary == null
+                        ? Map.of("available", true, "summary", "")
+                        : Map.of("available", true,
+                                 "summary", summary.summary(),
+                                 "recentComments", summary.recentComments(),
+                                 "summarizedComments", summary.summarizedComments())));
+    }
+
+    /**
+     * Background triage queue statistics and the tickets that could not be triaged.
+     */
+    @GetMapping("/triage-queue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getTriageQueue() {
+        return ResponseEntity.ok(Map.of(
+                "stats", ticketTriageQueue.getStats(),
+                "deadLetters", ticketTriageQueue.getDeadLetters()));
+    }
+
+    /**
+     * Queue dead-lettered tickets for background triage again.
+     */
+    @PostMapping("/triage-queue/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> retryTriageDeadLetters() {
+        return ResponseEntity.ok(Map.of("requeued", ticketTriageQueue.retryDeadLetters()));
+    }
+
+    /**
+     * Check if AI service is available, with suggestion cache, in-flight call,
+     * local classifier, ticket summary and triage queue statistics.
      */
     @GetMapping("/status")
     public ResponseEntity<?> getStatus() {
-        return ResponseEntity.ok(Map.of("available", aiService.isAvailable()));
+        return ResponseEntity.ok(Map.of(
+                "available", aiService.isAvailable(),
+                "suggestionsAvailable", aiService.isSuggestionAvailable(),
+                "suggestionCache", aiService.getSuggestionCacheStats(),
+                "calls", aiService.getInFlightStats(),
+                "classifier", aiService.getClassifierStats(),
+                "summaries", ticketSummaryService.getStats(),
+                "triageQueue", ticketTriageQueue.getStats()));
     }
 }
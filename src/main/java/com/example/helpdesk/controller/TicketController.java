@@ -1,22 +1,21 @@
 package com.example.helpdesk.controller;
 
+import com.example.helpdesk.config.UserPrincipal;
 import com.example.helpdesk.entity.Comment;
 import com.example.helpdesk.entity.Department;
 import com.example.helpdesk.entity.FeedbackCategory;
 import com.example.helpdesk.entity.Ticket;
-import com.example.helpdesk.entity.User;
-import com.example.helpdesk.repository.DepartmentRepository;
-import com.example.helpdesk.repository.FeedbackCategoryRepository;
 import com.example.helpdesk.repository.UserRepository;
+import com.example.helpdesk.repository.TicketRow;
 import com.example.helpdesk.service.CommentService;
+import com.example.helpdesk.service.CursorPage;
 import com.example.helpdesk.service.DepartmentService;
 import com.example.helpdesk.service.FeedbackCategoryService;
 import com.example.helpdesk.service.TicketService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -41,29 +40,25 @@ public class TicketController {
 
     private static final Logger logger = LoggerFactory.getLogger(TicketController.class);
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
     private final TicketService ticketService;
     private final DepartmentService departmentService;
     private final FeedbackCategoryService categoryService;
     private final CommentService commentService;
     private final UserRepository userRepository;
-    private final DepartmentRepository departmentRepository;
-    private final FeedbackCategoryRepository categoryRepository;
 
     public TicketController(
             TicketService ticketService,
             DepartmentService departmentService,
             FeedbackCategoryService categoryService,
             CommentService commentService,
-            UserRepository userRepository,
-            DepartmentRepository departmentRepository,
-            FeedbackCategoryRepository categoryRepository) {
+            UserRepository userRepository) {
         this.ticketService = ticketService;
         this.departmentService = departmentService;
         this.categoryService = categoryService;
         this.commentService = commentService;
         this.userRepository = userRepository;
-        this.departmentRepository = departmentRepository;
-        this.categoryRepository = categoryRepository;
     }
 
     @GetMapping("/new")
@@ -83,6 +78,7 @@ public class TicketController {
             BindingResult bindingResult,
             @RequestParam(required = false) Long departmentId,
             @RequestParam(required = false) Long categoryId,
+            @AuthenticationPrincipal UserPrincipal principal,
             Model model,
             RedirectAttributes redirectAttributes) {
 
@@ -93,17 +89,13 @@ public class TicketController {
         }
 
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userRepository.findByEmail(auth.getName())
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
-
-            ticket.setCreatedBy(currentUser);
+            ticket.setCreatedBy(userRepository.getReferenceById(principal.getId()));
 
             if (departmentId != null) {
-                ticket.setDepartment(departmentRepository.findById(departmentId).orElse(null));
+                ticket.setDepartment(departmentService.findById(departmentId).orElse(null));
             }
             if (categoryId != null) {
-                ticket.setCategory(categoryRepository.findById(categoryId).orElse(null));
+                ticket.setCategory(categoryService.findById(categoryId).orElse(null));
             }
 
             Ticket saved = ticketService.createTicket(ticket);
@@ -120,33 +112,33 @@ public class TicketController {
     }
 
     @GetMapping
-    public String listTickets(Model model, @RequestParam(required = false) String status) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-
-        List<Ticket> tickets;
+    public String listTickets(Model model,
+                              @RequestParam(required = false) String status,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                              @AuthenticationPrincipal UserPrincipal principal) {
+        CursorPage<TicketRow> page = ticketService.getTicketsPageByUser(principal.getId(), status, cursor, size);
         if (status != null && !status.isEmpty()) {
-            tickets = ticketService.getTicketsByUserAndStatus(currentUser.getId(), status);
             model.addAttribute("currentFilter", status);
-        } else {
-            tickets = ticketService.getTicketsByUser(currentUser.getId());
         }
 
-        model.addAttribute("tickets", tickets);
-        model.addAttribute("username", currentUser.getFullName());
+        model.addAttribute("tickets", page.getContent());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("prevCursor", page.getPrevCursor());
+        model.addAttribute("pageSize", size);
+        model.addAttribute("totalTickets", ticketService.countTicketsByUser(principal.getId(), status));
+        model.addAttribute("username", principal.getFullName());
         return "ticket-list";
     }
 
     @GetMapping("/{id}")
-    public String viewTicket(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-
+    public String viewTicket(@PathVariable Long id,
+                             @AuthenticationPrincipal UserPrincipal principal,
+                             Model model,
+                             RedirectAttributes redirectAttributes) {
         Ticket ticket = ticketService.getTicketById(id);
 
-        if (!ticket.getCreatedBy().getId().equals(currentUser.getId())) {
+        if (!ticket.getCreatedBy().getId().equals(principal.getId())) {
             redirectAttributes.addFlashAttribute("errorMessage", "You can only view your own tickets.");
             return "redirect:/tickets";
         }
@@ -160,19 +152,16 @@ public class TicketController {
     @PostMapping("/{id}/comment")
     public String addComment(@PathVariable Long id,
                              @RequestParam String content,
+                             @AuthenticationPrincipal UserPrincipal principal,
                              RedirectAttributes redirectAttributes) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-
         Ticket ticket = ticketService.getTicketById(id);
-        if (!ticket.getCreatedBy().getId().equals(currentUser.getId())) {
+        if (!ticket.getCreatedBy().getId().equals(principal.getId())) {
             redirectAttributes.addFlashAttribute("errorMessage", "You can only comment on your own tickets.");
             return "redirect:/tickets";
         }
 
         try {
-            commentService.addComment(id, content, auth.getName());
+            commentService.addComment(id, content, principal.getId());
             redirectAttributes.addFlashAttribute("successMessage", "Reply sent successfully");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
@@ -1,5 +1,6 @@
 package com.example.helpdesk.entity;
 
+import com.example.helpdesk.config.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,6 +15,7 @@ import lombok.Setter;
  * @author Facility Helpdesk Team
  */
 @Entity
+@EntityListeners(ReferenceDataCacheListener.class)
 @Table(name = "feedback_categories")
 @Getter
 @Setter
@@ -0,0 +1,33 @@
+package com.example.helpdesk.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a one-off startup task has finished, so later boots can skip it.
+ * Deleting the row makes the task run again on the next start.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Entity
+@Table(name = "maintenance_markers")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceMarker {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+}
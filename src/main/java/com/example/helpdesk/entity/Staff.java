@@ -22,7 +22,8 @@ import lombok.Setter;
 public class Staff {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "staff_seq")
+    @SequenceGenerator(name = "staff_seq", sequenceName = "staff_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -16,7 +16,15 @@ import java.time.LocalDateTime;
  * @author Facility Helpdesk Team
  */
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        // Keyset pagination indexes: every list page is a seek on (filter, created_at, id)
+        @Index(name = "idx_tickets_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_tickets_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_tickets_created_by_created_at_id", columnList = "created_by_id, created_at, id"),
+        // Work queue indexes: "most urgent open ticket" is a seek on (status, due_at) / (assignee, due_at)
+        @Index(name = "idx_tickets_status_due_at", columnList = "status, due_at"),
+        @Index(name = "idx_tickets_assigned_to_due_at", columnList = "assigned_to_id, due_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,7 +33,8 @@ import java.time.LocalDateTime;
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_seq")
+    @SequenceGenerator(name = "tickets_seq", sequenceName = "tickets_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Subject is required")
@@ -53,6 +62,12 @@ public class Ticket {
 
     private LocalDateTime updatedAt;
 
+    /**
+     * SLA deadline, derived from the category's SLA hours scaled by priority.
+     * Recomputed whenever the category or priority changes.
+     */
+    private LocalDateTime dueAt;
+
     /**
      * User who created the ticket.
      */
@@ -87,4 +102,21 @@ public class Ticket {
     @ManyToOne
     @JoinColumn(name = "category_id")
     private FeedbackCategory category;
+
+    /**
+     * Category and priority suggested by background AI triage. The ticket's own
+     * category and priority are left for staff to set.
+     */
+    @Column(length = 100)
+    private String suggestedCategory;
+
+    @Column(length = 20)
+    private String suggestedPriority;
+
+    private Double suggestionConfidence;
+
+    /**
+     * True once background AI triage has written its suggestion.
+     */
+    private Boolean aiTriaged;
 }
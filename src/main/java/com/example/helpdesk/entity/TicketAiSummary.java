@@ -0,0 +1,47 @@
+package com.example.helpdesk.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored AI summary of a ticket conversation, up to and including comment
+ * {@code lastCommentId}. Comments added later are folded into it on the next request.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Entity
+@Table(name = "ticket_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketAiSummary {
+
+    @Id
+    @Column(name = "ticket_id")
+    private Long ticketId;
+
+    @Column(nullable = false, columnDefinition = "NVARCHAR(MAX)")
+    private String summary;
+
+    /**
+     * Id of the newest comment covered, or null if the ticket had no comments.
+     */
+    private Long lastCommentId;
+
+    /**
+     * Number of comments covered.
+     */
+    @Column(nullable = false)
+    private int commentCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -21,8 +21,13 @@ import lombok.Setter;
 @Builder
 public class User {
 
+    /**
+     * Pooled sequence ids (not IDENTITY) so bulk inserts can be JDBC-batched.
+     * allocationSize must match the sequence's INCREMENT BY.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
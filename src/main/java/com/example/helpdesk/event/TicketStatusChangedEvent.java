@@ -0,0 +1,72 @@
+package com.example.helpdesk.event;
+
+import com.example.helpdesk.entity.Ticket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a ticket is created or its status, department or assignee changes.
+ * Carries the before/after values so listeners can apply the transition as a delta.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Getter
+@AllArgsConstructor
+public class TicketStatusChangedEvent {
+
+    private final Long ticketId;
+
+    /**
+     * Status before the change, null when the ticket was just created.
+     */
+    private final String oldStatus;
+    private final String newStatus;
+
+    private final Long oldDepartmentId;
+    private final Long newDepartmentId;
+
+    private final Long oldAssigneeId;
+    private final Long newAssigneeId;
+
+    /**
+     * SLA deadline of the ticket after the change, null if it has none.
+     */
+    private final LocalDateTime slaDeadline;
+
+    /**
+     * Event for a newly created ticket.
+     */
+    public static TicketStatusChangedEvent created(Ticket ticket) {
+        return new TicketStatusChangedEvent(ticket.getId(),
+                null, ticket.getStatus(),
+                null, departmentIdOf(ticket),
+                null, assigneeIdOf(ticket),
+                ticket.getDueAt());
+    }
+
+    /**
+     * Event for an existing ticket moving from the given previous state to its current state.
+     */
+    public static TicketStatusChangedEvent transition(Ticket ticket, String oldStatus,
+                                                      Long oldDepartmentId, Long oldAssigneeId) {
+        return new TicketStatusChangedEvent(ticket.getId(),
+                oldStatus, ticket.getStatus(),
+                oldDepartmentId, departmentIdOf(ticket),
+                oldAssigneeId, assigneeIdOf(ticket),
+                ticket.getDueAt());
+    }
+
+    public boolean isCreation() {
+        return oldStatus == null;
+    }
+
+    public static Long departmentIdOf(Ticket ticket) {
+        return ticket.getDepartment() != null ? ticket.getDepartment().getId() : null;
+    }
+
+    public static Long assigneeIdOf(Ticket ticket) {
+        return ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null;
+    }
+}
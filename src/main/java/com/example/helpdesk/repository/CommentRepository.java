@@ -16,5 +16,10 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByTicketIdOrderByCreatedAtAsc(Long ticketId);
 
+    /**
+     * Comments added to a ticket after the given comment, oldest first.
+     */
+    List<Comment> findByTicketIdAndIdGreaterThanOrderByIdAsc(Long ticketId, Long afterId);
+
     long countByTicketId(Long ticketId);
 }
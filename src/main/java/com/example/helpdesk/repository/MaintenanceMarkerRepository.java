@@ -0,0 +1,14 @@
+package com.example.helpdesk.repository;
+
+import com.example.helpdesk.entity.MaintenanceMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for MaintenanceMarker entity.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Repository
+public interface MaintenanceMarkerRepository extends JpaRepository<MaintenanceMarker, String> {
+}
@@ -1,6 +1,8 @@
 package com.example.helpdesk.repository;
 
+import com.example.helpdesk.config.CacheConfig;
 import com.example.helpdesk.entity.Room;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,10 +19,12 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
     /**
      * Find all rooms belonging to a specific department.
+     * Cached; invalidated whenever a room or department changes.
      * 
      * @param departmentId the department ID to search for
      * @return list of rooms in the department
      */
+    @Cacheable(CacheConfig.ROOMS_BY_DEPARTMENT)
     List<Room> findByDepartmentId(Long departmentId);
 
     /**
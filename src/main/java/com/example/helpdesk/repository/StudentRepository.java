@@ -2,8 +2,12 @@ package com.example.helpdesk.repository;
 
 import com.example.helpdesk.entity.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -30,7 +34,15 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      * @return Optional containing the student if found, empty otherwise
      */
     Optional<Student> findByUserId(Long userId);
-}
-
-
 
+    /**
+     * Return which of the given student codes are already taken.
+     * Used by bulk import to check a whole chunk of rows in one query;
+     * callers keep the collection under the driver's parameter limit.
+     * 
+     * @param studentCodes the student codes to check
+     * @return the subset that already exists
+     */
+    @Query("SELECT s.studentCode FROM Student s WHERE s.studentCode IN :studentCodes")
+    List<String> findExistingStudentCodes(@Param("studentCodes") Collection<String> studentCodes);
+}
@@ -0,0 +1,14 @@
+package com.example.helpdesk.repository;
+
+import com.example.helpdesk.entity.TicketAiSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for stored ticket summaries, keyed by ticket id.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Repository
+public interface TicketAiSummaryRepository extends JpaRepository<TicketAiSummary, Long> {
+}
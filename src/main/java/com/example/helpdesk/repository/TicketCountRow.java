@@ -0,0 +1,18 @@
+package com.example.helpdesk.repository;
+
+/**
+ * Projection for ticket counts grouped by status, department and assignee.
+ * Department and assignee are null for tickets without one.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public interface TicketCountRow {
+
+    String getStatus();
+
+    Long getDepartmentId();
+
+    Long getAssigneeId();
+
+    long getCount();
+}
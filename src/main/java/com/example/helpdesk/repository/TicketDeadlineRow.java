@@ -0,0 +1,15 @@
+package com.example.helpdesk.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of an open ticket's SLA deadline, used to seed the SLA monitor.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public interface TicketDeadlineRow {
+
+    Long getId();
+
+    LocalDateTime getDueAt();
+}
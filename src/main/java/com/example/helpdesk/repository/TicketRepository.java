@@ -1,10 +1,23 @@
 package com.example.helpdesk.repository;
 
 import com.example.helpdesk.entity.Ticket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Ticket entity.
@@ -51,7 +64,136 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      * Find all tickets created by a specific user with a specific status.
      */
     List<Ticket> findByCreatedByIdAndStatus(Long userId, String status);
-}
 
+    /**
+     * Scroll through all tickets using keyset pagination.
+     * 
+     * @param position the keyset position to continue from
+     * @param sort the sort order; must match the keys in the position
+     * @param limit the page size
+     * @return a window of tickets
+     */
+    Window<TicketRow> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Scroll through tickets with a specific status using keyset pagination.
+     */
+    Window<TicketRow> findByStatus(String status, ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Scroll through tickets created by a specific user using keyset pagination.
+     */
+    Window<TicketRow> findByCreatedById(Long userId, ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Scroll through tickets created by a specific user with a specific status using keyset pagination.
+     */
+    Window<TicketRow> findByCreatedByIdAndStatus(Long userId, String status,
+                                              ScrollPosition position, Sort sort, Limit limit);
+
+    long countByCreatedById(Long userId);
+
+    long countByCreatedByIdAndStatus(Long userId, String status);
 
+    /**
+     * Count tickets grouped by status in a single aggregate query.
+     * No ticket entities are loaded.
+     * 
+     * @return one row per status with its ticket count
+     */
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM Ticket t GROUP BY t.status")
+    List<TicketStatusCount> countGroupByStatus();
+
+    /**
+     * Count tickets grouped by status, department and assignee in a single aggregate query.
+     * Used to seed the in-memory ticket counters on startup.
+     * 
+     * @return one row per (status, department, assignee) combination with its ticket count
+     */
+    @Query("SELECT t.status AS status, t.department.id AS departmentId, t.assignedTo.id AS assigneeId, " +
+           "COUNT(t) AS count FROM Ticket t GROUP BY t.status, t.department.id, t.assignedTo.id")
+    List<TicketCountRow> countGroupByStatusDepartmentAndAssignee();
+
+    /**
+     * Find the SLA deadline of every ticket in the given statuses that has one.
+     * 
+     * @param statuses the statuses to include
+     * @return id and due date per ticket
+     */
+    @Query("SELECT t.id AS id, t.dueAt AS dueAt FROM Ticket t WHERE t.status IN :statuses AND t.dueAt IS NOT NULL")
+    List<TicketDeadlineRow> findDeadlineRowsByStatusIn(@Param("statuses") Collection<String> statuses);
 
+    /**
+     * Most urgent ticket assigned to a staff member in one of the given statuses.
+     * Served by the (assigned_to_id, due_at) index.
+     */
+    Optional<Ticket> findFirstByAssignedToIdAndStatusInOrderByDueAtAsc(Long staffId, Collection<String> statuses);
+
+    /**
+     * Most urgent unassigned ticket in one of the given statuses.
+     * Served by the (status, due_at) index.
+     */
+    Optional<Ticket> findFirstByAssignedToIsNullAndStatusInOrderByDueAtAsc(Collection<String> statuses);
+
+    /**
+     * Tickets in the given statuses that have no due date yet (created before due dates existed).
+     */
+    List<Ticket> findByDueAtIsNullAndStatusIn(Collection<String> statuses, Limit limit);
+
+    /**
+     * Find the lifecycle state of the given tickets that are still in one of the given statuses.
+     * The rows stay locked until the transaction ends, so their status cannot change underneath
+     * a following update.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id AS id, t.status AS status, t.department.id AS departmentId, t.assignedTo.id AS assigneeId " +
+           "FROM Ticket t WHERE t.id IN :ids AND t.status IN :statuses")
+    List<TicketStateRow> findStateRowsByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+                                                        @Param("statuses") Collection<String> statuses);
+
+    /**
+     * Set the status of the given tickets in a single UPDATE, skipping any ticket
+     * that has already left one of the expected statuses.
+     * 
+     * @return the number of tickets updated
+     */
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :newStatus, t.updatedAt = :updatedAt " +
+           "WHERE t.id IN :ids AND t.status IN :expectedStatuses")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("expectedStatuses") Collection<String> expectedStatuses,
+                           @Param("newStatus") String newStatus,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Next page of tickets for classifier training, in (createdAt, id) order after the
+     * given position. Served by the (created_at, id) index.
+     */
+    @Query("SELECT t.id AS id, t.createdAt AS createdAt, t.subject AS subject, t.description AS description, " +
+           "c.name AS categoryName, t.priority AS priority " +
+           "FROM Ticket t LEFT JOIN t.category c " +
+           "WHERE t.createdAt > :afterTime OR (t.createdAt = :afterTime AND t.id > :afterId) " +
+           "ORDER BY t.createdAt, t.id")
+    List<TicketTrainingRow> findTrainingRowsAfter(@Param("afterTime") LocalDateTime afterTime,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    /**
+     * Text and labels of the given tickets, for background triage.
+     */
+    @Query("SELECT t.id AS id, t.createdAt AS createdAt, t.subject AS subject, t.description AS description, " +
+           "c.name AS categoryName, t.priority AS priority " +
+           "FROM Ticket t LEFT JOIN t.category c WHERE t.id IN :ids")
+    List<TicketTrainingRow> findTrainingRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Record the AI triage suggestion of a ticket, touching only the suggestion columns.
+     */
+    @Modifying
+    @Query("UPDATE Ticket t SET t.suggestedCategory = :category, t.suggestedPriority = :priority, " +
+           "t.suggestionConfidence = :confidence, t.aiTriaged = true WHERE t.id = :id")
+    int updateTriageSuggestion(@Param("id") Long id,
+                               @Param("category") String category,
+                               @Param("priority") String priority,
+                               @Param("confidence") Double confidence);
+}
@@ -0,0 +1,35 @@
+package com.example.helpdesk.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a ticket for list views.
+ * Only the columns rendered in the list pages are selected; the TEXT description
+ * and the department/room/assignee associations are never loaded.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public interface TicketRow {
+
+    Long getId();
+
+    String getSubject();
+
+    String getStatus();
+
+    String getPriority();
+
+    LocalDateTime getCreatedAt();
+
+    UserName getCreatedBy();
+
+    CategoryName getCategory();
+
+    interface UserName {
+        String getFullName();
+    }
+
+    interface CategoryName {
+        String getName();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.helpdesk.repository;
+
+/**
+ * Projection of the fields that ticket lifecycle events carry.
+ * Lets bulk status updates publish events without loading ticket entities.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public interface TicketStateRow {
+
+    Long getId();
+
+    String getStatus();
+
+    Long getDepartmentId();
+
+    Long getAssigneeId();
+}
@@ -0,0 +1,13 @@
+package com.example.helpdesk.repository;
+
+/**
+ * Projection for aggregate ticket counts grouped by status.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public interface TicketStatusCount {
+
+    String getStatus();
+
+    long getCount();
+}
@@ -0,0 +1,24 @@
+package com.example.helpdesk.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a ticket's text and labels, used to train the local ticket classifier
+ * and as input to background triage.
+ *
+ * @author Facility Helpdesk Team
+ */
+public interface TicketTrainingRow {
+
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    String getSubject();
+
+    String getDescription();
+
+    String getCategoryName();
+
+    String getPriority();
+}
@@ -0,0 +1,13 @@
+package com.example.helpdesk.repository;
+
+/**
+ * Projection of a user's id and stored password, used by the startup password upgrade.
+ *
+ * @author Facility Helpdesk Team
+ */
+public interface UserPasswordRow {
+
+    Long getId();
+
+    String getPassword();
+}
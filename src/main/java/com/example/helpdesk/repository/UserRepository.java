@@ -1,9 +1,14 @@
 package com.example.helpdesk.repository;
 
 import com.example.helpdesk.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -30,7 +35,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if user exists, false otherwise
      */
     boolean existsByEmail(String email);
-}
-
 
+    /**
+     * Return which of the given emails are already taken.
+     * Used by bulk import to check a whole chunk of rows in one query;
+     * callers keep the collection under the driver's parameter limit.
+     * 
+     * @param emails the emails to check
+     * @return the subset that already exists
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
+    /**
+     * Next page of users whose password is not a BCrypt hash ($2a$, $2b$ or $2y$),
+     * in id order after the given id. Keyset paging, so each page is an index seek.
+     *
+     * @param afterId only return users with a greater id
+     * @param pageable the page size (the page number should stay 0)
+     * @return id and stored password of the matching users
+     */
+    @Query("SELECT u.id AS id, u.password AS password FROM User u " +
+           "WHERE u.id > :afterId " +
+           "AND u.password NOT LIKE '$2a$%' AND u.password NOT LIKE '$2b$%' AND u.password NOT LIKE '$2y$%' " +
+           "ORDER BY u.id")
+    List<UserPasswordRow> findNonBcryptPasswordsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -1,19 +1,55 @@
 package com.example.helpdesk.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * AI Service using Google Gemini API.
  * Provides smart categorization, priority suggestion, and reply generation.
+ * Calls are sent with {@code sendAsync} and return futures, so no thread waits on Gemini.
+ * Category and priority are answered by the local {@link TicketClassifier} when it is confident.
  * 
  * @author Facility Helpdesk Team
  */
@@ -22,18 +58,108 @@ public class AiService {
 
     private static final Logger logger = LoggerFactory.getLogger(AiService.class);
 
+    static final List<String> CATEGORIES = List.of(
+            "Hardware Issue", "Software Issue", "Facility Maintenance",
+            "Network Issue", "Electrical Issue", "Cleaning Request");
+
+    static final List<String> PRIORITIES = List.of("LOW", "MEDIUM", "HIGH", "URGENT");
+
+    /**
+     * Gemini structured output: the triage answer must be a JSON object of this shape.
+     */
+    private static final String TRIAGE_RESPONSE_SCHEMA =
+            "{\"type\":\"OBJECT\",\"properties\":{" +
+            "\"category\":{\"type\":\"STRING\",\"enum\":[" + quoted(CATEGORIES) + "]}," +
+            "\"priority\":{\"type\":\"STRING\",\"enum\":[" + quoted(PRIORITIES) + "]}," +
+            "\"confidence\":{\"type\":\"NUMBER\"}}," +
+            "\"required\":[\"category\",\"priority\",\"confidence\"]}";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final JsonFactory jsonFactory = objectMapper.getFactory();
+
     @Value("${gemini.api.key:}")
     private String apiKey;
 
     @Value("${gemini.api.model:gemini-2.0-flash}")
     private String model;
 
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}")
+    private String baseUrl;
+
+    /**
+     * Latency budgets: the longest a caller waits for each kind of call before getting
+     * no suggestion. Suggestions are on the ticket form, so theirs is the shortest.
+     */
+    @Value("${helpdesk.ai.budget.suggestion-ms:4000}")
+    private long suggestionBudgetMs;
+
+    @Value("${helpdesk.ai.budget.reply-ms:20000}")
+    private long replyBudgetMs;
+
+    @Value("${helpdesk.ai.budget.summary-ms:20000}")
+    private long summaryBudgetMs;
+
+    /**
+     * Local classifier answers at or above this confidence are used without asking Gemini.
+     */
+    @Value("${helpdesk.ai.classifier.confidence-threshold:0.8}")
+    private double localConfidenceThreshold;
+
+    private final TicketClassifier ticketClassifier;
+    private final LongAdder localAnswers = new LongAdder();
+
     private final HttpClient httpClient;
 
-    public AiService() {
+    /**
+     * Opens after repeated upstream failures so callers get an answer at once
+     * instead of each waiting out a timeout.
+     */
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * Bulkhead: caps the Gemini calls open at once. Calls beyond it are refused, not queued.
+     */
+    private final Semaphore callPermits;
+    private final int maxConcurrentCalls;
+
+    private final LongAdder rejectedOpenCircuit = new LongAdder();
+    private final LongAdder rejectedBulkhead = new LongAdder();
+    private final LongAdder timedOutCalls = new LongAdder();
+
+    /**
+     * Triage results, keyed by a hash of the normalized ticket text. The submit form
+     * asks again on every pause in typing, mostly for text it has already seen.
+     */
+    private final Cache<String, TriageSuggestion> suggestionCache;
+
+    /**
+     * Gemini calls currently running, by prompt key. Concurrent callers with the same key
+     * (e.g. many students reporting the same outage) wait on the first caller's future
+     * instead of sending their own request.
+     */
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public AiService(TicketClassifier ticketClassifier,
+                     @Value("${helpdesk.ai.suggestion-cache.max-entries:10000}") long maxCachedSuggestions,
+                     @Value("${helpdesk.ai.suggestion-cache.ttl-minutes:60}") long suggestionTtlMinutes,
+                     @Value("${helpdesk.ai.max-concurrent-calls:8}") int maxConcurrentCalls,
+                     @Value("${helpdesk.ai.breaker.failure-threshold:5}") int breakerFailureThreshold,
+                     @Value("${helpdesk.ai.breaker.open-ms:30000}") long breakerOpenMs) {
+        this.ticketClassifier = ticketClassifier;
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
+        this.circuitBreaker = new CircuitBreaker(breakerFailureThreshold,
+                TimeUnit.MILLISECONDS.toNanos(breakerOpenMs), System::nanoTime);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.callPermits = new Semaphore(maxConcurrentCalls);
+        this.suggestionCache = Caffeine.newBuilder()
+                .maximumSize(maxCachedSuggestions)
+                .expireAfterWrite(Duration.ofMinutes(suggestionTtlMinutes))
+                .recordStats()
+                .build();
     }
 
     /**
@@ -44,152 +170,633 @@ public class AiService {
     }
 
     /**
-     * Auto-categorize a ticket based on its subject and description.
-     * Returns the suggested category name.
+     * Check if category and priority suggestions can be made, by Gemini or
+     * by the local classifier.
      */
-    public String suggestCategory(String subject, String description) {
-        if (!isAvailable()) return null;
+    public boolean isSuggestionAvailable() {
+        return isAvailable() || ticketClassifier.isReady();
+    }
+
+    /**
+     * Suggest a category and a priority for a ticket.
+     * A confident local classifier answer is returned at once; otherwise Gemini is
+     * asked with one model call, and the local answer is the fallback if that fails
+     * or no API key is configured. Completes with null if neither can answer.
+     */
+    public CompletableFuture<TriageSuggestion> triage(String subject, String description) {
+        TriageSuggestion local = ticketClassifier.classify(subject, description);
+        if (local != null && local.confidence() >= localConfidenceThreshold) {
+            localAnswers.increment();
+            return CompletableFuture.completedFuture(local);
+        }
+        if (!isAvailable()) return CompletableFuture.completedFuture(local);
 
         String prompt = String.format(
-            "You are a helpdesk ticket categorization system for a university. " +
-            "Based on the ticket below, suggest ONE category from this list: " +
-            "Hardware Issue, Software Issue, Facility Maintenance, Network Issue, Electrical Issue, Cleaning Request. " +
-            "Respond with ONLY the category name, nothing else.\n\n" +
-            "Subject: %s\nDescription: %s", subject, description);
+            "You are a helpdesk triage system for a university. " +
+            "Based on the ticket below, choose ONE category from this list: %s. " +
+            "Then choose the priority level. " +
+            "Consider: safety hazards=URGENT, broken essential equipment=HIGH, inconvenience=MEDIUM, minor requests=LOW. " +
+            "Also give your confidence in the answer as a number from 0.0 to 1.0.\n\n" +
+            "Subject: %s\nDescription: %s", String.join(", ", CATEGORIES), subject, description);
 
-        return callGemini(prompt);
+        return cachedTriage(subject, description,
+                () -> callGemini(prompt, TRIAGE_RESPONSE_SCHEMA, suggestionBudgetMs).thenApply(AiService::parseTriage))
+                .thenApply(remote -> remote != null ? remote : local);
+    }
+
+    /**
+     * Auto-categorize a ticket based on its subject and description.
+     * Completes with the suggested category name, or null if unavailable.
+     */
+    public CompletableFuture<String> suggestCategory(String subject, String description) {
+        return triage(subject, description).thenApply(triage -> triage != null ? triage.category() : null);
     }
 
     /**
      * Suggest priority level for a ticket.
-     * Returns: LOW, MEDIUM, HIGH, or URGENT.
+     * Completes with LOW, MEDIUM, HIGH, or URGENT, or null if unavailable.
      */
-    public String suggestPriority(String subject, String description) {
-        if (!isAvailable()) return null;
+    public CompletableFuture<String> suggestPriority(String subject, String description) {
+        return triage(subject, description).thenApply(triage -> triage != null ? triage.priority() : null);
+    }
 
-        String prompt = String.format(
-            "You are a helpdesk priority assessment system for a university. " +
-            "Based on the ticket below, suggest the priority level. " +
-            "Consider: safety hazards=URGENT, broken essential equipment=HIGH, inconvenience=MEDIUM, minor requests=LOW. " +
-            "Respond with ONLY one word: LOW, MEDIUM, HIGH, or URGENT.\n\n" +
-            "Subject: %s\nDescription: %s", subject, description);
+    /**
+     * Generate a smart reply suggestion for staff responding to a ticket.
+     */
+    public CompletableFuture<String> suggestReply(String subject, String description, String status) {
+        if (!isAvailable()) return CompletableFuture.completedFuture(null);
 
-        return callGemini(prompt);
+        String prompt = replyPrompt(subject, description, status);
+        return singleFlight(promptKey(prompt), () -> callGemini(prompt, null, replyBudgetMs));
     }
 
     /**
-     * Generate a smart reply suggestion for staff responding to a ticket.
+     * Stream a reply suggestion, passing each piece of text to {@code onChunk} as Gemini
+     * produces it. Staff see the start of the reply long before the whole reply is done.
+     * The stream is subject to the same bulkhead, circuit breaker and latency budget as
+     * other calls. Cancelling the returned future, or {@code onChunk} throwing, stops it.
+     *
+     * @return completes when the reply is finished; completes exceptionally if the call
+     *         was refused or failed, or with {@link IllegalStateException} if unavailable
      */
-    public String suggestReply(String subject, String description, String status) {
-        if (!isAvailable()) return null;
+    public CompletableFuture<Void> streamReply(String subject, String description, String status,
+                                               Consumer<String> onChunk) {
+        if (!isAvailable()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("AI service not configured"));
+        }
 
-        String prompt = String.format(
+        HttpRequest request;
+        try {
+            request = geminiRequest("streamGenerateContent", "alt=sse&",
+                    replyPrompt(subject, description, status), null, replyBudgetMs);
+        } catch (Exception e) {
+            logger.error("Error building Gemini request: {}", e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!tryStartCall()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("AI service is busy or unavailable"));
+        }
+
+        ReplyStreamSubscriber subscriber = new ReplyStreamSubscriber(onChunk);
+        // Once we cancel the body the response future never completes, so the call is
+        // finished by whichever side ends first
+        AtomicBoolean finished = new AtomicBoolean();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber))
+                .whenComplete((response, error) -> {
+                    finishStreamCall(subscriber, finished, response != null ? response.statusCode() : 0, error);
+                    if (error != null) {
+                        subscriber.done.completeExceptionally(error);
+                    } else if (response.statusCode() != 200) {
+                        logger.error("Gemini API streaming error. Status: {}", response.statusCode());
+                        subscriber.done.completeExceptionally(
+                                new IllegalStateException("Gemini returned status " + response.statusCode()));
+                    } else {
+                        subscriber.done.complete(null);
+                    }
+                });
+        subscriber.done.whenComplete((result, error) -> {
+            if (error != null) {
+                finishStreamCall(subscriber, finished, 0, error);
+            }
+        });
+        // The request timeout covers the response headers; this bounds the whole stream
+        subscriber.done.orTimeout(replyBudgetMs, TimeUnit.MILLISECONDS);
+        return subscriber.done;
+    }
+
+    private void finishStreamCall(ReplyStreamSubscriber subscriber, AtomicBoolean finished,
+                                  int statusCode, Throwable error) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.done.isCancelled() || subscriber.consumerFailed) {
+            // We stopped reading (client gone, consumer failed): says nothing about Gemini
+            abandonCall();
+        } else {
+            finishCall(statusCode, error);
+        }
+    }
+
+    private static String replyPrompt(String subject, String description, String status) {
+        return String.format(
             "You are a helpful university helpdesk staff assistant. " +
             "Generate a professional, friendly reply to the following student ticket. " +
             "The reply should acknowledge the issue, provide expected resolution timeline, and ask for any needed details. " +
             "Keep it concise (2-3 paragraphs). Write in English.\n\n" +
             "Ticket Subject: %s\nTicket Description: %s\nCurrent Status: %s", subject, description, status);
-
-        return callGemini(prompt);
     }
 
     /**
      * Summarize a ticket with multiple comments.
      */
-    public String summarizeTicket(String subject, String description, String comments) {
-        if (!isAvailable()) return null;
+    public CompletableFuture<String> summarizeTicket(String subject, String description, String comments) {
+        if (!isAvailable()) return CompletableFuture.completedFuture(null);
 
         String prompt = String.format(
             "Summarize the following helpdesk ticket and its conversation in 2-3 bullet points. " +
             "Focus on: the issue, actions taken, and current status.\n\n" +
             "Subject: %s\nDescription: %s\n\nConversation:\n%s", subject, description, comments);
 
-        return callGemini(prompt);
+        return singleFlight(promptKey(prompt), () -> callGemini(prompt, null, summaryBudgetMs));
+    }
+
+    /**
+     * Bring a stored ticket summary up to date with comments added since it was made.
+     */
+    public CompletableFuture<String> updateSummary(String subject, String previousSummary, String newComments) {
+        if (!isAvailable()) return CompletableFuture.completedFuture(null);
+
+        String prompt = String.format(
+            "Below is the current summary of a helpdesk ticket, followed by comments added since. " +
+            "Rewrite the summary to include the new comments, in 2-3 bullet points. " +
+            "Focus on: the issue, actions taken, and current status.\n\n" +
+            "Subject: %s\n\nCurrent summary:\n%s\n\nNew comments:\n%s", subject, previousSummary, newComments);
+
+        return singleFlight(promptKey(prompt), () -> callGemini(prompt, null, summaryBudgetMs));
+    }
+
+    /**
+     * Condense older ticket comments, together with the summary of the comments before
+     * them, into a short running summary of the conversation so far.
+     *
+     * @param previousSummary summary of the comments before {@code comments}, or null
+     */
+    public CompletableFuture<String> summarizeHistory(String previousSummary, String comments) {
+        if (!isAvailable()) return CompletableFuture.completedFuture(null);
+
+        String prompt = String.format(
+            "Condense the following earlier part of a helpdesk ticket conversation into a factual summary " +
+            "of at most 120 words. Keep problems reported, actions taken, decisions and open questions; " +
+            "drop greetings and repetition.\n\n" +
+            "Summary of the conversation before this part:\n%s\n\nComments:\n%s",
+            previousSummary != null ? previousSummary : "(none)", comments);
+
+        return singleFlight(promptKey(prompt), () -> callGemini(prompt, null, summaryBudgetMs));
+    }
+
+    /**
+     * Size, hits, misses, hit rate and evictions of the suggestion cache.
+     */
+    public Map<String, Object> getSuggestionCacheStats() {
+        CacheStats stats = suggestionCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", suggestionCache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * Calls in flight, callers that shared another caller's call, circuit state,
+     * and calls refused or cut off by the circuit breaker, bulkhead and budgets.
+     */
+    public Map<String, Object> getInFlightStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inFlight", inFlight.size());
+        result.put("coalesced", coalescedCalls.sum());
+        result.put("circuit", circuitBreaker.getState().name());
+        result.put("activeUpstream", maxConcurrentCalls - callPermits.availablePermits());
+        result.put("rejectedOpenCircuit", rejectedOpenCircuit.sum());
+        result.put("rejectedBulkhead", rejectedBulkhead.sum());
+        result.put("timedOut", timedOutCalls.sum());
+        return result;
+    }
+
+    /**
+     * Local classifier state and how many triage requests it answered without Gemini.
+     */
+    public Map<String, Object> getClassifierStats() {
+        Map<String, Object> result = new LinkedHashMap<>(ticketClassifier.getStats());
+        result.put("confidenceThreshold", localConfidenceThreshold);
+        result.put("localAnswers", localAnswers.sum());
+        return result;
+    }
+
+    /**
+     * Return the cached triage for this ticket text, or ask Gemini and cache the answer.
+     * Failed calls (null) are not cached, so the next request tries again.
+     */
+    private CompletableFuture<TriageSuggestion> cachedTriage(String subject, String description,
+                                                             Supplier<CompletableFuture<TriageSuggestion>> call) {
+        String key = suggestionKey("triage", subject, description);
+        TriageSuggestion cached = suggestionCache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return singleFlight(key, () -> {
+            // A call that finished between the lookup above and joining the flight left its answer
+            // here; asMap() reads without counting a second miss
+            TriageSuggestion finished = suggestionCache.asMap().get(key);
+            if (finished != null) {
+                return CompletableFuture.completedFuture(finished);
+            }
+            return call.get().thenApply(triage -> {
+                if (triage != null) {
+                    suggestionCache.put(key, triage);
+                }
+                return triage;
+            });
+        });
     }
 
     /**
-     * Call Google Gemini API.
+     * Start the call, unless a call with the same key is already running, in which case
+     * share its result. The entry is removed once the call completes, so later callers
+     * start a fresh call (or hit the cache). Each caller gets its own copy of the future,
+     * so one caller cancelling cannot fail the others.
      */
-    private String callGemini(String prompt) {
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> singleFlight(String key, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        // Keys are prefixed by kind, and each kind always produces the same result type
+        CompletableFuture<T> running = (CompletableFuture<T>) inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalescedCalls.increment();
+            return running.copy();
+        }
+        CompletableFuture<T> upstream;
         try {
-            String url = String.format(
-                "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s",
-                model, apiKey);
-
-            // Escape special characters for JSON
-            String escapedPrompt = prompt
-                    .replace("\\", "\\\\")
-                    .replace("\"", "\\\"")
-                    .replace("\n", "\\n")
-                    .replace("\r", "\\r")
-                    .replace("\t", "\\t");
-
-            String requestBody = String.format(
-                "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}]," +
-                "\"generationConfig\":{\"temperature\":0.3,\"maxOutputTokens\":1024}}",
-                escapedPrompt);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .timeout(Duration.ofSeconds(30))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                return extractTextFromResponse(response.body());
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((result, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
             } else {
-                logger.error("Gemini API error. Status: {}, Body: {}", response.statusCode(), response.body());
+                flight.complete(result);
+            }
+        });
+        return flight.copy();
+    }
+
+    /**
+     * Cache key for a suggestion. Case and whitespace differences map to the same key,
+     * and hashing keeps long descriptions out of the cache.
+     */
+    static String suggestionKey(String kind, String subject, String description) {
+        return kind + ":" + sha256(normalize(subject) + "\n" + normalize(description));
+    }
+
+    /**
+     * Read the model's triage JSON, keeping only allowed values.
+     *
+     * @return the suggestion, or null if the text is not usable
+     */
+    static TriageSuggestion parseTriage(String text) {
+        if (text == null) return null;
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            String category = allowedValue(node.path("category").asText(null), CATEGORIES);
+            String priority = allowedValue(node.path("priority").asText(null), PRIORITIES);
+            if (category == null && priority == null) {
+                logger.warn("Gemini triage answer had no usable fields: {}", text);
                 return null;
             }
+            double confidence = Math.clamp(node.path("confidence").asDouble(0.0), 0.0, 1.0);
+            return new TriageSuggestion(category, priority, confidence);
         } catch (Exception e) {
-            logger.error("Error calling Gemini API: {}", e.getMessage());
+            logger.error("Error parsing Gemini triage answer: {}", e.getMessage());
             return null;
         }
     }
 
     /**
-     * Extract text content from Gemini API JSON response.
-     * Simple parsing without external JSON library dependency.
+     * The allowed value matching {@code value} ignoring case and surrounding space, or null.
      */
-    private String extractTextFromResponse(String json) {
+    private static String allowedValue(String value, List<String> allowed) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return allowed.stream().filter(candidate -> candidate.equalsIgnoreCase(trimmed)).findFirst().orElse(null);
+    }
+
+    private static String quoted(List<String> values) {
+        return String.join(",", values.stream().map(value -> "\"" + value + "\"").toList());
+    }
+
+    /**
+     * In-flight key for prompts that are not cached (replies, summaries).
+     */
+    private static String promptKey(String prompt) {
+        return "prompt:" + sha256(prompt);
+    }
+
+    static String sha256(String text) {
         try {
-            // Find "text" : "..." in response
-            String marker = "\"text\"";
-            int textIndex = json.indexOf(marker);
-            if (textIndex == -1) return null;
-
-            // Find the colon after "text"
-            int colonIndex = json.indexOf(":", textIndex + marker.length());
-            if (colonIndex == -1) return null;
-
-            // Find the opening quote of the value
-            int startQuote = json.indexOf("\"", colonIndex + 1);
-            if (startQuote == -1) return null;
-
-            // Find the closing quote (handling escaped quotes)
-            int endQuote = startQuote + 1;
-            while (endQuote < json.length()) {
-                if (json.charAt(endQuote) == '\"' && json.charAt(endQuote - 1) != '\\') {
-                    break;
-                }
-                endQuote++;
-            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-            String text = json.substring(startQuote + 1, endQuote);
-            // Unescape
-            text = text.replace("\\n", "\n")
-                       .replace("\\r", "\r")
-                       .replace("\\t", "\t")
-                       .replace("\\\"", "\"")
-                       .replace("\\\\", "\\");
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
 
-            return text.trim();
+    /**
+     * Call Google Gemini API without blocking the caller, asking for JSON matching
+     * {@code responseSchema} when one is given.
+     * The future completes with the response text, or null on any error, when the call
+     * is refused (open circuit, bulkhead full), or once {@code budgetMs} has passed.
+     */
+    private CompletableFuture<String> callGemini(String prompt, String responseSchema, long budgetMs) {
+        HttpRequest request;
+        try {
+            request = geminiRequest("generateContent", "", prompt, responseSchema, budgetMs);
         } catch (Exception e) {
+            logger.error("Error building Gemini request: {}", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!tryStartCall()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        // The request timeout stops at the response headers; this bounds the body as well,
+        // and aborts the exchange so a trickling body cannot keep its permit
+        return exchange.copy()
+                .orTimeout(budgetMs, TimeUnit.MILLISECONDS)
+                .handle((response, error) -> {
+                    if (error instanceof TimeoutException) {
+                        exchange.cancel(true);
+                    }
+                    finishCall(response != null ? response.statusCode() : 0, error);
+                    if (error != null) {
+                        logger.error("Error calling Gemini API: {}", error.getMessage());
+                        return null;
+                    }
+                    if (response.statusCode() == 200) {
+                        String text = extractTextFromResponse(response.body());
+                        return text != null ? text.trim() : null;
+                    }
+                    logger.error("Gemini API error. Status: {}, Body: {}", response.statusCode(),
+                            new String(response.body(), StandardCharsets.UTF_8));
+                    return null;
+                });
+    }
+
+    /**
+     * Build a Gemini request for the given method ({@code generateContent} or
+     * {@code streamGenerateContent}), with extra query parameters ending in '&amp;'.
+     */
+    private HttpRequest geminiRequest(String method, String query, String prompt, String responseSchema,
+                                      long budgetMs) {
+        String url = String.format("%s/v1beta/models/%s:%s?%skey=%s", baseUrl, model, method, query, apiKey);
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody(prompt, responseSchema)))
+                .timeout(Duration.ofMillis(budgetMs))
+                .build();
+    }
+
+    /**
+     * Take a bulkhead permit and ask the circuit breaker. A granted call must be
+     * followed by {@link #finishCall}.
+     *
+     * @return false if the call is refused
+     */
+    private boolean tryStartCall() {
+        // Bulkhead first: a half-open probe granted by the breaker must always be sent
+        if (!callPermits.tryAcquire()) {
+            rejectedBulkhead.increment();
+            logger.warn("Gemini call refused: {} calls already in progress", maxConcurrentCalls);
+            return false;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            callPermits.release();
+            rejectedOpenCircuit.increment();
+            logger.debug("Gemini call refused: circuit is open");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the bulkhead permit and record the outcome with the circuit breaker.
+     */
+    private void finishCall(int statusCode, Throwable error) {
+        callPermits.release();
+        if (error != null) {
+            circuitBreaker.onFailure();
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+                timedOutCalls.increment();
+            }
+        } else if (statusCode == 429 || statusCode >= 500) {
+            // Rate limiting and server errors mean Gemini is struggling; other errors are ours
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * Release the bulkhead permit of a call we gave up on ourselves, without recording
+     * an outcome with the circuit breaker.
+     */
+    private void abandonCall() {
+        callPermits.release();
+        circuitBreaker.onAbandoned();
+    }
+
+    /**
+     * Write the generateContent request body as UTF-8 JSON. The prompt is escaped as it is
+     * written, so no escaped copy of it is made; {@code responseSchema} is trusted JSON.
+     */
+    static byte[] requestBody(String prompt, String responseSchema) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prompt.length() + 256);
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("contents");
+            json.writeStartObject();
+            json.writeArrayFieldStart("parts");
+            json.writeStartObject();
+            json.writeStringField("text", prompt);
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeObjectFieldStart("generationConfig");
+            json.writeNumberField("temperature", 0.3);
+            json.writeNumberField("maxOutputTokens", 1024);
+            if (responseSchema != null) {
+                json.writeStringField("responseMimeType", "application/json");
+                json.writeFieldName("responseSchema");
+                json.writeRawValue(responseSchema);
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Read the text of one {@code data:} event from a Gemini SSE stream.
+     */
+    static String extractStreamChunk(String line) {
+        if (!line.startsWith("data:")) return null;
+        return extractTextFromResponse(line.substring(5).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Extract the text of a Gemini response: all parts of the first candidate that has
+     * any text, joined. Reads the JSON as a token stream without building a tree.
+     *
+     * @return the text, or null if there is none or the JSON is malformed
+     */
+    static String extractTextFromResponse(byte[] json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            String text = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("candidates".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        String candidateText = readCandidateText(parser);
+                        if (text == null) {
+                            text = candidateText;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return text;
+        } catch (IOException e) {
             logger.error("Error parsing Gemini response: {}", e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Read one candidate object, positioned at its start, and join the text of its parts.
+     *
+     * @return the text, or null if the candidate has none
+     */
+    private static String readCandidateText(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        StringBuilder text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!"content".equals(field) || value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String contentField = parser.currentName();
+                JsonToken contentValue = parser.nextToken();
+                if (!"parts".equals(contentField) || contentValue != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonToken part;
+                while ((part = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (part != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String partField = parser.currentName();
+                        JsonToken partValue = parser.nextToken();
+                        if ("text".equals(partField) && partValue == JsonToken.VALUE_STRING) {
+                            if (text == null) {
+                                text = new StringBuilder();
+                            }
+                            text.append(parser.getText());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+        return text != null ? text.toString() : null;
+    }
+
+    /**
+     * Passes the text of each SSE event to the consumer as lines arrive.
+     * Cancels the upstream body when the stream is cancelled, times out or the consumer fails.
+     */
+    private static final class ReplyStreamSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onChunk;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        /**
+         * Set before the stream is failed because the consumer threw, so the cancelled
+         * upstream body is not blamed on Gemini.
+         */
+        private volatile boolean consumerFailed;
+
+        ReplyStreamSubscriber(Consumer<String> onChunk) {
+            this.onChunk = onChunk;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            done.whenComplete((result, error) -> {
+                if (error != null) {
+                    subscription.cancel();
+                }
+            });
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (done.isDone()) return;
+            String text = extractStreamChunk(line);
+            if (text == null || text.isEmpty()) return;
+            try {
+                onChunk.accept(text);
+            } catch (RuntimeException e) {
+                consumerFailed = true;
+                done.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            // Completed from the response future, once the status is known
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.helpdesk.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker for an upstream service.
+ * After {@code failureThreshold} failures in a row the circuit opens and calls are
+ * refused without trying. Once {@code openNanos} have passed, one probe call is let
+ * through (half-open): success closes the circuit, failure opens it again.
+ *
+ * @author Facility Helpdesk Team
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Ask to make a call. Every granted call must be followed by
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onAbandoned()}.
+     *
+     * @return false if the circuit is open, or half-open with its probe still running
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    /**
+     * A granted call ended without telling us anything about the upstream (we gave up on
+     * it ourselves). A half-open probe may be sent again at once.
+     */
+    synchronized void onAbandoned() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong() - openNanos;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
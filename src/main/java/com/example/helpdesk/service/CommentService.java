@@ -11,9 +11,9 @@ import java.util.List;
  */
 public interface CommentService {
 
-    Comment addComment(Long ticketId, String content, String userEmail);
+    Comment addComment(Long ticketId, String content, Long authorId);
 
-    Comment addAiComment(Long ticketId, String content, String userEmail);
+    Comment addAiComment(Long ticketId, String content, Long authorId);
 
     List<Comment> getCommentsByTicket(Long ticketId);
 }
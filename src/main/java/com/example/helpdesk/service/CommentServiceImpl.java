@@ -38,13 +38,12 @@ public class CommentServiceImpl implements CommentService {
 
     @Override
     @Transactional
-    public Comment addComment(Long ticketId, String content, String userEmail) {
-        logger.info("Adding comment to ticket {} by user {}", ticketId, userEmail);
+    public Comment addComment(Long ticketId, String content, Long authorId) {
+        logger.info("Adding comment to ticket {} by user {}", ticketId, authorId);
 
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found: " + ticketId));
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userEmail));
+        User user = authorReference(authorId);
 
         Comment comment = Comment.builder()
                 .content(content)
@@ -59,13 +58,12 @@ public class CommentServiceImpl implements CommentService {
 
     @Override
     @Transactional
-    public Comment addAiComment(Long ticketId, String content, String userEmail) {
-        logger.info("Adding AI-generated comment to ticket {} by user {}", ticketId, userEmail);
+    public Comment addAiComment(Long ticketId, String content, Long authorId) {
+        logger.info("Adding AI-generated comment to ticket {} by user {}", ticketId, authorId);
 
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found: " + ticketId));
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userEmail));
+        User user = authorReference(authorId);
 
         Comment comment = Comment.builder()
                 .content(content)
@@ -78,6 +76,17 @@ public class CommentServiceImpl implements CommentService {
         return commentRepository.save(comment);
     }
 
+    /**
+     * The author id comes from the authenticated principal, so a lazy
+     * reference is enough to set the foreign key without a SELECT.
+     */
+    private User authorReference(Long authorId) {
+        if (authorId == null) {
+            throw new IllegalArgumentException("Comment author is required");
+        }
+        return userRepository.getReferenceById(authorId);
+    }
+
     @Override
     public List<Comment> getCommentsByTicket(Long ticketId) {
         return commentRepository.findByTicketIdOrderByCreatedAtAsc(ticketId);
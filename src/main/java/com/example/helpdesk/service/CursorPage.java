@@ -0,0 +1,47 @@
+package com.example.helpdesk.service;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) paginated result.
+ * Cursors are opaque tokens; a null cursor means there is no page in that direction.
+ * 
+ * @param <T> the element type
+ * @author Facility Helpdesk Team
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    public CursorPage(List<T> content, String nextCursor, String prevCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return prevCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
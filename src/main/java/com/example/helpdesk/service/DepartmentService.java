@@ -3,6 +3,7 @@ package com.example.helpdesk.service;
 import com.example.helpdesk.entity.Department;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service interface for Department operations.
@@ -11,6 +12,8 @@ import java.util.List;
  */
 public interface DepartmentService {
     List<Department> findAll();
+
+    Optional<Department> findById(Long id);
 }
 
 
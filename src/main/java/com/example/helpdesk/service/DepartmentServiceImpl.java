@@ -1,13 +1,17 @@
 package com.example.helpdesk.service;
 
+import com.example.helpdesk.config.CacheConfig;
 import com.example.helpdesk.entity.Department;
 import com.example.helpdesk.repository.DepartmentRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service implementation for Department operations.
+ * Reads are cached; see {@link CacheConfig} for bounds and invalidation.
  * 
  * @author Facility Helpdesk Team
  */
@@ -20,8 +24,15 @@ public class DepartmentServiceImpl implements DepartmentService {
     }
 
     @Override
+    @Cacheable(CacheConfig.DEPARTMENTS)
     public List<Department> findAll() {
-        return departmentRepository.findAll();
+        return List.copyOf(departmentRepository.findAll());
+    }
+
+    @Override
+    @Cacheable(CacheConfig.DEPARTMENT_BY_ID)
+    public Optional<Department> findById(Long id) {
+        return departmentRepository.findById(id);
     }
 }
 
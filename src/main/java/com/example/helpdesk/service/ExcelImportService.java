@@ -6,19 +6,35 @@ import com.example.helpdesk.entity.User;
 import com.example.helpdesk.repository.StudentRepository;
 import com.example.helpdesk.repository.StaffRepository;
 import com.example.helpdesk.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for importing users from Excel files.
@@ -30,228 +46,328 @@ public class ExcelImportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExcelImportService.class);
 
+    /**
+     * Rows validated and inserted together. Also bounds the size of the
+     * {@code IN (...)} lists, well under SQL Server's 2100-parameter limit.
+     */
+    private static final int CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
     private final StaffRepository staffRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService hashingPool;
 
     public ExcelImportService(
             UserRepository userRepository,
             StudentRepository studentRepository,
-            StaffRepository staffRepository) {
+            StaffRepository staffRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.studentRepository = studentRepository;
         this.staffRepository = staffRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        // Shared by all running imports, so concurrent jobs cannot oversubscribe the CPU
+        this.hashingPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().name("import-hash-", 1).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
     }
 
     /**
-     * Import users from Excel file.
+     * Import users from an Excel file.
      * Expected columns: Email, Password, Full Name, Role, Student Code, Class Name, Position, Department Name
      * 
-     * @param file the Excel file to import
-     * @return ImportResult containing success count, failure count, and error messages
+     * <p>The sheet is streamed row by row (see {@link ExcelUserSheetReader}) and handled
+     * in chunks of {@value #CHUNK_SIZE} rows. Each chunk is validated as a set: duplicates
+     * within the file are caught with hash sets, and existing emails and student codes are
+     * looked up with one {@code IN} query each. Only rows that pass are inserted, as
+     * JDBC batches, and each chunk commits in its own short transaction.</p>
+     * 
+     * <p>Counts and errors are recorded on {@code result} as each chunk completes, so
+     * another thread can report progress while the import runs.</p>
+     * 
+     * @param file the .xlsx file to import
+     * @param result receives success count, failure count, and error messages
      */
-    @Transactional
-    public ImportResult importUsersFromExcel(MultipartFile file) {
-        logger.info("Starting Excel import for file: {}", file.getOriginalFilename());
-
-        ImportResult result = new ImportResult();
-        List<String> errors = new ArrayList<>();
-
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(inputStream)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Skip header row (row 0)
-            int totalRows = sheet.getLastRowNum();
-            if (totalRows < 1) {
-                errors.add("Excel file is empty or has no data rows");
-                result.setErrors(errors);
-                return result;
-            }
-
-            // Read header row to find column indices
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                errors.add("Header row is missing");
-                result.setErrors(errors);
-                return result;
-            }
-
-            int emailCol = findColumnIndex(headerRow, "Email");
-            int passwordCol = findColumnIndex(headerRow, "Password");
-            int fullNameCol = findColumnIndex(headerRow, "Full Name");
-            int roleCol = findColumnIndex(headerRow, "Role");
-            int studentCodeCol = findColumnIndex(headerRow, "Student Code");
-            int classNameCol = findColumnIndex(headerRow, "Class Name");
-            int positionCol = findColumnIndex(headerRow, "Position");
-
-            // Validate required columns
-            if (emailCol == -1 || passwordCol == -1 || fullNameCol == -1 || roleCol == -1) {
-                errors.add("Missing required columns. Required: Email, Password, Full Name, Role");
-                result.setErrors(errors);
-                return result;
-            }
+    public void importUsersFromExcel(Path file, ImportResult result) {
+        logger.info("Starting Excel import for file: {}", file.getFileName());
 
-            // Process data rows
-            for (int i = 1; i <= totalRows; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) {
-                    continue;
-                }
+        ImportContext context = new ImportContext(result);
 
-                try {
-                    String email = getCellValueAsString(row.getCell(emailCol));
-                    String password = getCellValueAsString(row.getCell(passwordCol));
-                    String fullName = getCellValueAsString(row.getCell(fullNameCol));
-                    String role = getCellValueAsString(row.getCell(roleCol));
-                    String studentCode = studentCodeCol != -1 ? getCellValueAsString(row.getCell(studentCodeCol)) : null;
-                    String className = classNameCol != -1 ? getCellValueAsString(row.getCell(classNameCol)) : null;
-                    String position = positionCol != -1 ? getCellValueAsString(row.getCell(positionCol)) : null;
-
-                    // Validate required fields
-                    if (email == null || email.trim().isEmpty()) {
-                        errors.add("Row " + (i + 1) + ": Email is required");
-                        result.incrementFailed();
-                        continue;
-                    }
-
-                    if (password == null || password.trim().isEmpty()) {
-                        errors.add("Row " + (i + 1) + ": Password is required");
-                        result.incrementFailed();
-                        continue;
-                    }
-
-                    if (fullName == null || fullName.trim().isEmpty()) {
-                        errors.add("Row " + (i + 1) + ": Full Name is required");
-                        result.incrementFailed();
-                        continue;
-                    }
-
-                    if (role == null || role.trim().isEmpty()) {
-                        errors.add("Row " + (i + 1) + ": Role is required");
-                        result.incrementFailed();
-                        continue;
-                    }
-
-                    role = role.toUpperCase().trim();
-                    if (!role.equals("STUDENT") && !role.equals("STAFF") && !role.equals("ADMIN")) {
-                        errors.add("Row " + (i + 1) + ": Invalid role '" + role + "'. Must be STUDENT, STAFF, or ADMIN");
-                        result.incrementFailed();
-                        continue;
-                    }
-
-                    // Check if user already exists
-                    if (userRepository.existsByEmail(email.trim())) {
-                        errors.add("Row " + (i + 1) + ": Email '" + email + "' already exists");
-                        result.incrementFailed();
-                        continue;
-                    }
-
-                    // Create user
-                    User user = User.builder()
-                            .email(email.trim())
-                            .password(password.trim())
-                            .fullName(fullName.trim())
-                            .role(role)
-                            .build();
-
-                    user = userRepository.save(user);
-
-                    // Create role-specific entities
-                    if (role.equals("STUDENT")) {
-                        if (studentCode != null && !studentCode.trim().isEmpty()) {
-                            // Check if student code already exists
-                            if (studentRepository.findByStudentCode(studentCode.trim()).isPresent()) {
-                                errors.add("Row " + (i + 1) + ": Student Code '" + studentCode + "' already exists");
-                                userRepository.delete(user);
-                                result.incrementFailed();
-                                continue;
-                            }
-
-                            Student student = Student.builder()
-                                    .studentCode(studentCode.trim())
-                                    .className(className != null && !className.trim().isEmpty() ? className.trim() : "N/A")
-                                    .user(user)
-                                    .build();
-                            studentRepository.save(student);
-                        }
-                    } else if (role.equals("STAFF")) {
-                        Staff staff = Staff.builder()
-                                .position(position != null && !position.trim().isEmpty() ? position.trim() : "Staff")
-                                .user(user)
-                                .build();
-                        staffRepository.save(staff);
-                    }
-
-                    result.incrementSuccess();
-                    logger.debug("Successfully imported user: {}", email);
-
-                } catch (Exception e) {
-                    logger.error("Error processing row {}: {}", i + 1, e.getMessage());
-                    errors.add("Row " + (i + 1) + ": " + e.getMessage());
-                    result.incrementFailed();
+        try {
+            int rows = ExcelUserSheetReader.read(file, row -> {
+                context.chunk.add(row);
+                if (context.chunk.size() == CHUNK_SIZE) {
+                    importChunk(context);
                 }
+            });
+            importChunk(context);
+            if (rows == 0) {
+                result.addError("Excel file is empty or has no data rows");
             }
-
+        } catch (IllegalArgumentException e) {
+            // Header problems reported by the reader
+            result.addError(e.getMessage());
         } catch (IOException e) {
             logger.error("Error reading Excel file: {}", e.getMessage());
-            errors.add("Error reading Excel file: " + e.getMessage());
+            result.addError("Error reading Excel file: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Unexpected error during Excel import: {}", e.getMessage());
-            errors.add("Unexpected error: " + e.getMessage());
+            result.addError("Unexpected error: " + e.getMessage());
         }
 
-        result.setErrors(errors);
-        logger.info("Excel import completed. Success: {}, Failed: {}", result.getSuccessCount(), result.getFailedCount());
-        return result;
+        logger.info("Excel import completed. Success: {}, Failed: {}, Password hashes/s: {}",
+                result.getSuccessCount(), result.getFailedCount(), String.format("%.1f", result.getHashesPerSecond()));
     }
 
     /**
-     * Find column index by header name (case-insensitive).
+     * Run the buffered chunk through the import pipeline, then clear the chunk:
+     * validate as a set, hash passwords in parallel, and insert in one short
+     * transaction. Inserts are JDBC-batched and sent on flush. If the chunk cannot
+     * be checked or committed, its valid rows are reported as failed and the
+     * import carries on with the next chunk.
      */
-    private int findColumnIndex(Row headerRow, String columnName) {
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String cellValue = getCellValueAsString(cell);
-                if (cellValue != null && cellValue.trim().equalsIgnoreCase(columnName)) {
-                    return i;
-                }
+    private void importChunk(ImportContext context) {
+        if (context.chunk.isEmpty()) {
+            return;
+        }
+
+        // Per-row field checks and in-file duplicate detection (in memory)
+        List<UserImportRow> pending = validateRows(context);
+        try {
+            pending = rejectExisting(pending, context);
+            pending = hashPasswords(pending, context.result);
+
+            // Hashing happens before the transaction opens, so no connection is held for it
+            List<UserImportRow> accepted = pending;
+            transactionTemplate.executeWithoutResult(status -> {
+                accepted.forEach(this::insertRow);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            accepted.forEach(row -> context.result.incrementSuccess());
+        } catch (RuntimeException e) {
+            logger.error("Import chunk ending at row {} failed: {}",
+                    context.chunk.get(context.chunk.size() - 1).rowNumber(), e.getMessage());
+            pending.forEach(row -> context.fail(row, "Not imported, batch insert failed: " + e.getMessage()));
+        } finally {
+            context.chunk.clear();
+        }
+    }
+
+    /**
+     * Apply the per-row checks to the buffered chunk.
+     * 
+     * @return the rows that passed, trimmed and defaulted
+     */
+    private List<UserImportRow> validateRows(ImportContext context) {
+        List<UserImportRow> candidates = new ArrayList<>(context.chunk.size());
+        for (UserImportRow row : context.chunk) {
+            UserImportRow valid = validateRow(row, context);
+            if (valid != null) {
+                candidates.add(valid);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Drop rows whose email or student code is already taken, with one round trip
+     * per chunk for each check.
+     */
+    private List<UserImportRow> rejectExisting(List<UserImportRow> candidates, ImportContext context) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> existingEmails = lowerCase(
+                userRepository.findExistingEmails(candidates.stream().map(UserImportRow::email).toList()));
+        List<String> studentCodes = candidates.stream()
+                .map(UserImportRow::studentCode)
+                .filter(Objects::nonNull)
+                .toList();
+        Set<String> existingStudentCodes = studentCodes.isEmpty()
+                ? Set.of()
+                : lowerCase(studentRepository.findExistingStudentCodes(studentCodes));
+
+        List<UserImportRow> accepted = new ArrayList<>(candidates.size());
+        for (UserImportRow row : candidates) {
+            if (existingEmails.contains(row.email().toLowerCase())) {
+                context.fail(row, "Email '" + row.email() + "' already exists");
+            } else if (row.studentCode() != null && existingStudentCodes.contains(row.studentCode().toLowerCase())) {
+                context.fail(row, "Student Code '" + row.studentCode() + "' already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * BCrypt the passwords of the given rows on the hashing pool.
+     * At cost 10 a hash takes tens of milliseconds, so this is the slow stage of
+     * an import; running it on all cores keeps large sheets from taking hours.
+     * 
+     * @return the rows with hashed passwords, in the same order
+     */
+    private List<UserImportRow> hashPasswords(List<UserImportRow> rows, ImportResult result) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        long start = System.nanoTime();
+        List<Future<UserImportRow>> futures = new ArrayList<>(rows.size());
+        for (UserImportRow row : rows) {
+            futures.add(hashingPool.submit(() -> row.withPassword(passwordEncoder.encode(row.password()))));
+        }
+
+        List<UserImportRow> hashed = new ArrayList<>(rows.size());
+        try {
+            for (Future<UserImportRow> future : futures) {
+                hashed.add(future.get());
             }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
         }
-        return -1;
+        result.recordHashes(hashed.size(), System.nanoTime() - start);
+        return hashed;
     }
 
     /**
-     * Get cell value as string.
+     * Check required fields, role and in-file uniqueness.
+     * 
+     * @return the row with trimmed and defaulted values, or null if it was rejected
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
+    private UserImportRow validateRow(UserImportRow row, ImportContext context) {
+        String email = trimToNull(row.email());
+        String password = trimToNull(row.password());
+        String fullName = trimToNull(row.fullName());
+        String role = trimToNull(row.role());
+
+        // Validate required fields
+        if (email == null) {
+            context.fail(row, "Email is required");
+            return null;
+        }
+        if (password == null) {
+            context.fail(row, "Password is required");
+            return null;
+        }
+        if (fullName == null) {
+            context.fail(row, "Full Name is required");
+            return null;
+        }
+        if (role == null) {
+            context.fail(row, "Role is required");
             return null;
         }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // Convert numeric to string without decimal if it's a whole number
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
+        role = role.toUpperCase();
+        if (!role.equals("STUDENT") && !role.equals("STAFF") && !role.equals("ADMIN")) {
+            context.fail(row, "Invalid role '" + role + "'. Must be STUDENT, STAFF, or ADMIN");
+            return null;
+        }
+
+        // Student code only applies to students; class name and position have defaults
+        String studentCode = role.equals("STUDENT") ? trimToNull(row.studentCode()) : null;
+        String className = trimToNull(row.className());
+        String position = trimToNull(row.position());
+
+        // Emails and codes are compared case-insensitively, like the database collation
+        Integer firstEmailRow = context.seenEmails.putIfAbsent(email.toLowerCase(), row.rowNumber());
+        if (firstEmailRow != null) {
+            context.fail(row, "Email '" + email + "' is duplicated in the file (first seen in row " + firstEmailRow + ")");
+            return null;
+        }
+        if (studentCode != null) {
+            Integer firstCodeRow = context.seenStudentCodes.putIfAbsent(studentCode.toLowerCase(), row.rowNumber());
+            if (firstCodeRow != null) {
+                context.fail(row, "Student Code '" + studentCode + "' is duplicated in the file (first seen in row "
+                        + firstCodeRow + ")");
                 return null;
+            }
+        }
+
+        return new UserImportRow(row.rowNumber(), email, password, fullName, role,
+                studentCode,
+                className != null ? className : "N/A",
+                position != null ? position : "Staff");
+    }
+
+    /**
+     * Save a validated row (password already hashed) and its role-specific entity.
+     * Ids come from pooled sequences, so nothing is sent until the chunk is flushed.
+     */
+    private void insertRow(UserImportRow row) {
+        User user = userRepository.save(User.builder()
+                .email(row.email())
+                .password(row.password())
+                .fullName(row.fullName())
+                .role(row.role())
+                .build());
+
+        // Create role-specific entities
+        if (row.role().equals("STUDENT") && row.studentCode() != null) {
+            studentRepository.save(Student.builder()
+                    .studentCode(row.studentCode())
+                    .className(row.className())
+                    .user(user)
+                    .build());
+        } else if (row.role().equals("STAFF")) {
+            staffRepository.save(Staff.builder()
+                    .position(row.position())
+                    .user(user)
+                    .build());
+        }
+        logger.debug("Queued import of user: {}", row.email());
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static Set<String> lowerCase(Collection<String> values) {
+        Set<String> set = new HashSet<>(values.size() * 2);
+        for (String value : values) {
+            set.add(value.toLowerCase());
+        }
+        return set;
+    }
+
+    /**
+     * Mutable state for one import run.
+     */
+    private static final class ImportContext {
+        private final ImportResult result;
+        private final List<UserImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        // Lower-cased key -> row number where it first appeared
+        private final Map<String, Integer> seenEmails = new HashMap<>();
+        private final Map<String, Integer> seenStudentCodes = new HashMap<>();
+
+        ImportContext(ImportResult result) {
+            this.result = result;
+        }
+
+        void fail(UserImportRow row, String message) {
+            result.addError("Row " + row.rowNumber() + ": " + message);
+            result.incrementFailed();
         }
     }
 
@@ -329,35 +445,69 @@ public class ExcelImportService {
 
     /**
      * Result class for Excel import operation.
+     * Thread-safe, so progress can be read while an import is running.
      */
     public static class ImportResult {
-        private int successCount = 0;
-        private int failedCount = 0;
-        private List<String> errors = new ArrayList<>();
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final AtomicInteger failedCount = new AtomicInteger();
+        private final AtomicInteger hashedCount = new AtomicInteger();
+        private final AtomicLong hashingNanos = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
 
         public void incrementSuccess() {
-            successCount++;
+            successCount.incrementAndGet();
         }
 
         public void incrementFailed() {
-            failedCount++;
+            failedCount.incrementAndGet();
+        }
+
+        public void addError(String error) {
+            errors.add(error);
+        }
+
+        /**
+         * Record a batch of password hashes and the wall-clock time it took.
+         */
+        public void recordHashes(int count, long nanos) {
+            hashedCount.addAndGet(count);
+            hashingNanos.addAndGet(nanos);
         }
 
         public int getSuccessCount() {
-            return successCount;
+            return successCount.get();
         }
 
         public int getFailedCount() {
-            return failedCount;
+            return failedCount.get();
         }
 
-        public List<String> getErrors() {
-            return errors;
+        /**
+         * Rows handled so far, whether imported or rejected.
+         */
+        public int getProcessedCount() {
+            return getSuccessCount() + getFailedCount();
+        }
+
+        public int getHashedCount() {
+            return hashedCount.get();
         }
 
-        public void setErrors(List<String> errors) {
-            this.errors = errors;
+        /**
+         * Password hashing throughput of the parallel hashing stage.
+         */
+        public double getHashesPerSecond() {
+            long nanos = hashingNanos.get();
+            return nanos == 0 ? 0 : hashedCount.get() * 1_000_000_000.0 / nanos;
+        }
+
+        /**
+         * Snapshot of the error messages recorded so far.
+         */
+        public List<String> getErrors() {
+            synchronized (errors) {
+                return List.copyOf(errors);
+            }
         }
     }
 }
-
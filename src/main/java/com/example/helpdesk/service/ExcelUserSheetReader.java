@@ -0,0 +1,168 @@
+package com.example.helpdesk.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for user import sheets, built on the XSSF event API.
+ * Rows are parsed with SAX and handed to a callback one at a time, so heap
+ * use does not grow with the number of rows (unlike {@code XSSFWorkbook},
+ * which builds the whole sheet as a DOM).
+ * 
+ * <p>Only the first sheet is read. Row 0 must be the header; columns are
+ * matched by header text, case-insensitively.</p>
+ * 
+ * @author Facility Helpdesk Team
+ */
+final class ExcelUserSheetReader {
+
+    private ExcelUserSheetReader() {
+    }
+
+    /**
+     * Stream the data rows of the first sheet to the given consumer.
+     * The stream is spooled to a temp file first, since OPCPackage reads a
+     * file lazily but buffers a whole stream in memory.
+     * 
+     * @param inputStream the .xlsx content
+     * @param rowConsumer called once per data row, in sheet order
+     * @return the number of data rows read
+     * @throws IllegalArgumentException if the header row or a required column is missing
+     * @throws IOException if the file cannot be read as an .xlsx workbook
+     */
+    static int read(InputStream inputStream, Consumer<UserImportRow> rowConsumer) throws IOException {
+        Path tempFile = Files.createTempFile("user-import-", ".xlsx");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return read(tempFile, rowConsumer);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Stream the data rows of the first sheet of an .xlsx file to the given consumer.
+     * 
+     * @param file the .xlsx file
+     * @param rowConsumer called once per data row, in sheet order
+     * @return the number of data rows read
+     * @throws IllegalArgumentException if the header row or a required column is missing
+     * @throws IOException if the file cannot be read as an .xlsx workbook
+     */
+    static int read(Path file, Consumer<UserImportRow> rowConsumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return 0;
+            }
+
+            RowHandler handler = new RowHandler(rowConsumer);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+            return handler.dataRows;
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Collects the cells of the current row and emits it on row end.
+     */
+    private static final class RowHandler implements SheetContentsHandler {
+
+        private final Consumer<UserImportRow> rowConsumer;
+        private final Map<Integer, String> cells = new HashMap<>();
+        private Map<String, Integer> columns;
+        private int lastColumn;
+        private int dataRows;
+
+        RowHandler(Consumer<UserImportRow> rowConsumer) {
+            this.rowConsumer = rowConsumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            lastColumn = -1;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Some writers omit the "r" attribute; cells are then consecutive
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : lastColumn + 1;
+            lastColumn = column;
+            cells.put(column, formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (columns == null) {
+                readHeader(rowNum);
+                return;
+            }
+            rowConsumer.accept(new UserImportRow(
+                    rowNum + 1,
+                    value("email"),
+                    value("password"),
+                    value("full name"),
+                    value("role"),
+                    value("student code"),
+                    value("class name"),
+                    value("position")));
+            dataRows++;
+        }
+
+        private void readHeader(int rowNum) {
+            if (rowNum != 0) {
+                throw new IllegalArgumentException("Header row is missing");
+            }
+            columns = new HashMap<>();
+            cells.forEach((column, header) -> {
+                if (header != null) {
+                    columns.putIfAbsent(header.trim().toLowerCase(), column);
+                }
+            });
+            if (!columns.containsKey("email") || !columns.containsKey("password")
+                    || !columns.containsKey("full name") || !columns.containsKey("role")) {
+                throw new IllegalArgumentException("Missing required columns. Required: Email, Password, Full Name, Role");
+            }
+        }
+
+        private String value(String header) {
+            Integer column = columns.get(header);
+            return column != null ? cells.get(column) : null;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.helpdesk.service;
 import com.example.helpdesk.entity.FeedbackCategory;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service interface for FeedbackCategory operations.
@@ -11,6 +12,8 @@ import java.util.List;
  */
 public interface FeedbackCategoryService {
     List<FeedbackCategory> findAll();
+
+    Optional<FeedbackCategory> findById(Long id);
 }
 
 
@@ -1,13 +1,17 @@
 package com.example.helpdesk.service;
 
+import com.example.helpdesk.config.CacheConfig;
 import com.example.helpdesk.entity.FeedbackCategory;
 import com.example.helpdesk.repository.FeedbackCategoryRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service implementation for FeedbackCategory operations.
+ * Reads are cached; see {@link CacheConfig} for bounds and invalidation.
  * 
  * @author Facility Helpdesk Team
  */
@@ -20,8 +24,15 @@ public class FeedbackCategoryServiceImpl implements FeedbackCategoryService {
     }
 
     @Override
+    @Cacheable(CacheConfig.CATEGORIES)
     public List<FeedbackCategory> findAll() {
-        return categoryRepository.findAll();
+        return List.copyOf(categoryRepository.findAll());
+    }
+
+    @Override
+    @Cacheable(CacheConfig.CATEGORY_BY_ID)
+    public Optional<FeedbackCategory> findById(Long id) {
+        return categoryRepository.findById(id);
     }
 }
 
@@ -0,0 +1,84 @@
+package com.example.helpdesk.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A background user import and its live progress.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public class ImportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String filename;
+    private final Instant submittedAt = Instant.now();
+    private final ExcelImportService.ImportResult result = new ExcelImportService.ImportResult();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    ImportJob(String id, String filename) {
+        this.id = id;
+        this.filename = filename;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void markFinished(Status finalStatus) {
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public ExcelImportService.ImportResult getResult() {
+        return result;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * Average throughput since the job started, or 0 while queued.
+     */
+    public double getRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return result.getProcessedCount() * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.helpdesk.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Excel user imports as background jobs.
+ * 
+ * <p>The upload is saved to a temp file and the HTTP request returns at once with a
+ * job id; the import itself runs on a small bounded pool, so a large enrollment
+ * sheet never holds a request thread or one long transaction. When the pool and
+ * its queue are full, new uploads are rejected rather than piling up.</p>
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    /**
+     * Finished jobs kept in memory for progress and error report downloads.
+     */
+    private static final int MAX_RETAINED_FINISHED_JOBS = 20;
+
+    private final ExcelImportService excelImportService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(ExcelImportService excelImportService,
+                            @Value("${helpdesk.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                            @Value("${helpdesk.import.queue-capacity:4}") int queueCapacity) {
+        this.excelImportService = excelImportService;
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("user-import-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue an uploaded file for import.
+     * 
+     * @param file the uploaded .xlsx file
+     * @return the queued job
+     * @throws IOException if the upload cannot be saved
+     * @throws IllegalStateException if too many imports are already queued
+     */
+    public ImportJob submit(MultipartFile file) throws IOException {
+        // The multipart temp file is deleted when the request ends; keep our own copy
+        Path upload = Files.createTempFile("user-import-", ".xlsx");
+        file.transferTo(upload);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(upload);
+            throw new IllegalStateException("Too many imports in progress. Please try again in a few minutes.");
+        }
+
+        logger.info("Queued import job {} for file {}", job.getId(), job.getFilename());
+        pruneFinishedJobs();
+        return job;
+    }
+
+    /**
+     * Look up a job by id.
+     */
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(ImportJob job, Path upload) {
+        job.markRunning();
+        logger.info("Import job {} started", job.getId());
+        try {
+            excelImportService.importUsersFromExcel(upload, job.getResult());
+            job.markFinished(ImportJob.Status.COMPLETED);
+        } catch (RuntimeException e) {
+            logger.error("Import job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.getResult().addError("Unexpected error: " + e.getMessage());
+            job.markFinished(ImportJob.Status.FAILED);
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                logger.warn("Could not delete import upload {}: {}", upload, e.getMessage());
+            }
+        }
+        logger.info("Import job {} finished {}: {} rows at {} rows/s", job.getId(), job.getStatus(),
+                job.getResult().getProcessedCount(), String.format("%.0f", job.getRowsPerSecond()));
+    }
+
+    private void pruneFinishedJobs() {
+        jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing(ImportJob::getFinishedAt).reversed())
+                .skip(MAX_RETAINED_FINISHED_JOBS)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
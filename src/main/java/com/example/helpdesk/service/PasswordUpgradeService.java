@@ -0,0 +1,153 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.entity.MaintenanceMarker;
+import com.example.helpdesk.entity.User;
+import com.example.helpdesk.repository.MaintenanceMarkerRepository;
+import com.example.helpdesk.repository.UserPasswordRow;
+import com.example.helpdesk.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One-off upgrade of plaintext passwords to BCrypt hashes.
+ * Runs at startup until it has completed once, then records a marker so later
+ * boots skip it with a single primary-key lookup.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Service
+public class PasswordUpgradeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUpgradeService.class);
+
+    static final String MARKER = "bcrypt-password-upgrade";
+
+    /**
+     * Users read, hashed and updated together. The updates go out as JDBC batches.
+     */
+    private static final int PAGE_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final MaintenanceMarkerRepository markerRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    public PasswordUpgradeService(
+            UserRepository userRepository,
+            MaintenanceMarkerRepository markerRepository,
+            PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.markerRepository = markerRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Hash every stored password that is not already a BCrypt hash, unless a previous
+     * run has completed.
+     *
+     * @return the number of passwords upgraded
+     */
+    public int upgradePlaintextPasswords() {
+        if (markerRepository.existsById(MARKER)) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int upgraded = 0;
+        try (ExecutorService hashingPool = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().name("password-upgrade-", 1).daemon(true).factory())) {
+            long afterId = 0;
+            List<UserPasswordRow> page;
+            do {
+                page = userRepository.findNonBcryptPasswordsAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+                if (!page.isEmpty()) {
+                    upgraded += savePage(page, hashAll(page, hashingPool));
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+        }
+
+        markerRepository.save(MaintenanceMarker.builder()
+                .name(MARKER)
+                .completedAt(LocalDateTime.now())
+                .build());
+
+        if (upgraded > 0) {
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            logger.info("Upgraded {} plaintext passwords to BCrypt in {} s.",
+                    upgraded, String.format("%.1f", seconds));
+        }
+        return upgraded;
+    }
+
+    /**
+     * Hash a page of passwords in parallel, outside any transaction.
+     *
+     * @return the hashes, in page order
+     */
+    private List<String> hashAll(List<UserPasswordRow> page, ExecutorService hashingPool) {
+        List<Future<String>> futures = new ArrayList<>(page.size());
+        for (UserPasswordRow row : page) {
+            futures.add(hashingPool.submit(() -> passwordEncoder.encode(row.getPassword())));
+        }
+
+        List<String> hashes = new ArrayList<>(page.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password upgrade was interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    /**
+     * Write a page of hashes in one transaction. A password changed since the page
+     * was read is left alone.
+     *
+     * @return the number of users updated
+     */
+    private int savePage(List<UserPasswordRow> page, List<String> hashes) {
+        Integer saved = transactionTemplate.execute(status -> {
+            Map<Long, User> users = userRepository.findAllById(
+                            page.stream().map(UserPasswordRow::getId).toList()).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            int count = 0;
+            for (int i = 0; i < page.size(); i++) {
+                UserPasswordRow row = page.get(i);
+                User user = users.get(row.getId());
+                if (user != null && row.getPassword().equals(user.getPassword())) {
+                    user.setPassword(hashes.get(i));
+                    count++;
+                }
+            }
+            return count;
+        });
+        return saved == null ? 0 : saved;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.TicketDeadlineRow;
+import com.example.helpdesk.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SLA engine that moves open tickets to OVERDUE once their deadline passes.
+ * 
+ * Deadlines (the ticket's persisted dueAt) live in an in-memory {@link DelayQueue},
+ * seeded once at startup from the open tickets and kept current from ticket lifecycle
+ * events. The periodic scan only drains entries that have already expired, so it never
+ * polls the tickets table; expired tickets are flipped in batched UPDATEs.
+ * 
+ * Queue entries are removed lazily: a ticket that is resolved or rescheduled simply
+ * drops out of {@code deadlines}, and its stale queue entry is skipped when it expires.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Component
+public class SlaMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaMonitor.class);
+
+    private final TicketRepository ticketRepository;
+    private final TicketService ticketService;
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+
+    /**
+     * Current deadline per tracked ticket. Queue entries that disagree with this map are stale.
+     */
+    private final Map<Long, LocalDateTime> deadlines = new ConcurrentHashMap<>();
+
+    public SlaMonitor(TicketRepository ticketRepository, TicketService ticketService) {
+        this.ticketRepository = ticketRepository;
+        this.ticketService = ticketService;
+    }
+
+    /**
+     * Seed the deadline queue from all open tickets in one query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<TicketDeadlineRow> rows = ticketRepository.findDeadlineRowsByStatusIn(TicketServiceImpl.SLA_OPEN_STATUSES);
+        for (TicketDeadlineRow row : rows) {
+            track(row.getId(), row.getDueAt());
+        }
+        logger.info("SLA monitor tracking {} open ticket(s)", deadlines.size());
+    }
+
+    /**
+     * Keep the queue in step with ticket lifecycle changes.
+     * Tickets that were already OVERDUE are not re-tracked when staff pick them up again.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketStatusChanged(TicketStatusChangedEvent event) {
+        boolean open = TicketServiceImpl.SLA_OPEN_STATUSES.contains(event.getNewStatus());
+        if (open && event.getSlaDeadline() != null && !"OVERDUE".equals(event.getOldStatus())) {
+            track(event.getTicketId(), event.getSlaDeadline());
+        } else if (!open) {
+            deadlines.remove(event.getTicketId());
+        }
+    }
+
+    /**
+     * Drain every expired deadline and mark those tickets OVERDUE.
+     */
+    @Scheduled(fixedDelayString = "${helpdesk.sla.scan-interval-ms:60000}",
+               initialDelayString = "${helpdesk.sla.scan-interval-ms:60000}")
+    public void flushExpired() {
+        List<Deadline> expired = new ArrayList<>();
+        Deadline head;
+        while ((head = queue.poll()) != null) {
+            // remove(key, value) only succeeds for the live entry; stale ones are dropped
+            if (deadlines.remove(head.ticketId, head.dueAt)) {
+                expired.add(head);
+            }
+        }
+
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        logger.info("{} ticket(s) passed their SLA deadline", expired.size());
+        try {
+            ticketService.markOverdue(expired.stream().map(deadline -> deadline.ticketId).toList());
+        } catch (RuntimeException e) {
+            // Nothing was committed: track the tickets again so the next scan retries them,
+            // keeping any newer deadline an event tracked meanwhile
+            for (Deadline deadline : expired) {
+                if (deadlines.putIfAbsent(deadline.ticketId, deadline.dueAt) == null) {
+                    queue.add(deadline);
+                }
+            }
+            logger.error("Could not mark {} ticket(s) OVERDUE, will retry: {}", expired.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Number of tickets currently tracked.
+     */
+    public int getTrackedCount() {
+        return deadlines.size();
+    }
+
+    private void track(Long ticketId, LocalDateTime dueAt) {
+        LocalDateTime previous = deadlines.put(ticketId, dueAt);
+        if (!dueAt.equals(previous)) {
+            queue.add(new Deadline(ticketId, dueAt));
+        }
+    }
+
+    /**
+     * Queue entry ordered by deadline.
+     */
+    private static final class Deadline implements Delayed {
+        private final Long ticketId;
+        private final LocalDateTime dueAt;
+        private final long dueAtMillis;
+
+        Deadline(Long ticketId, LocalDateTime dueAt) {
+            this.ticketId = ticketId;
+            this.dueAt = dueAt;
+            this.dueAtMillis = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketTrainingRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-process ticket classifier: multinomial naive Bayes over hashed word and
+ * word-pair features, one model for category and one for priority.
+ *
+ * Trained from existing tickets when the application is ready, then topped up on a
+ * schedule with tickets created since the last run (naive Bayes only needs counts, so
+ * training is incremental). Pooled sequence ids are not handed out in commit order, so
+ * runs resume by creation time rather than id, and look again at the last
+ * {@link #RESCAN_WINDOW} before the newest ticket seen; tickets read twice are skipped
+ * by id. Each run publishes a fresh immutable model, so predictions never wait for
+ * training and take well under a millisecond.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Component
+public class TicketClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketClassifier.class);
+
+    /**
+     * Features are hashed into this many buckets (2^16), so memory does not grow with vocabulary.
+     */
+    static final int BUCKETS = 1 << 16;
+
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * How far before the newest trained ticket each run reads again, to pick up tickets
+     * whose transactions committed after a later ticket's.
+     */
+    static final Duration RESCAN_WINDOW = Duration.ofMinutes(10);
+
+    /**
+     * Creation time before any ticket, where the first run starts.
+     */
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final TicketRepository ticketRepository;
+    private final int minTrainingTickets;
+
+    // Training state, guarded by this
+    private final LabelCounts categoryCounts = new LabelCounts();
+    private final LabelCounts priorityCounts = new LabelCounts();
+    private LocalDateTime newestTrained;
+    /**
+     * Creation time of the tickets trained within the rescan window, by id.
+     */
+    private final Map<Long, LocalDateTime> recentlyTrained = new HashMap<>();
+    private volatile int trainedTickets;
+
+    /**
+     * Published models; null until enough tickets have been seen.
+     */
+    private volatile Model categoryModel;
+    private volatile Model priorityModel;
+
+    private final LongAdder predictions = new LongAdder();
+
+    public TicketClassifier(TicketRepository ticketRepository,
+                            @Value("${helpdesk.ai.classifier.min-training-tickets:50}") int minTrainingTickets) {
+        this.ticketRepository = ticketRepository;
+        this.minTrainingTickets = minTrainingTickets;
+    }
+
+    /**
+     * Add tickets created since the last run to the counts and publish new models.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${helpdesk.ai.classifier.retrain-interval-ms:600000}",
+               initialDelayString = "${helpdesk.ai.classifier.retrain-interval-ms:600000}")
+    public synchronized void train() {
+        int added = 0;
+        LocalDateTime afterTime = newestTrained != null ? newestTrained.minus(RESCAN_WINDOW) : START;
+        long afterId = 0;
+        List<TicketTrainingRow> page;
+        do {
+            page = ticketRepository.findTrainingRowsAfter(afterTime, afterId, PageRequest.of(0, PAGE_SIZE));
+            for (TicketTrainingRow row : page) {
+                afterTime = row.getCreatedAt();
+                afterId = row.getId();
+                if (recentlyTrained.putIfAbsent(row.getId(), row.getCreatedAt()) != null) {
+                    continue;
+                }
+                learn(row.getSubject(), row.getDescription(), row.getCategoryName(), row.getPriority());
+                if (newestTrained == null || row.getCreatedAt().isAfter(newestTrained)) {
+                    newestTrained = row.getCreatedAt();
+                }
+                added++;
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        if (newestTrained != null) {
+            LocalDateTime windowStart = newestTrained.minus(RESCAN_WINDOW);
+            recentlyTrained.values().removeIf(createdAt -> createdAt.isBefore(windowStart));
+        }
+        if (added == 0) {
+            return;
+        }
+        publish();
+        logger.info("Ticket classifier trained on {} new ticket(s), {} in total", added, trainedTickets);
+    }
+
+    /**
+     * Add one labelled ticket to the counts. Missing labels are skipped.
+     * Takes effect at the next {@link #publish()}.
+     */
+    synchronized void learn(String subject, String description, String category, String priority) {
+        trainedTickets++;
+        int[] features = features(subject, description);
+        if (category != null) {
+            categoryCounts.add(category, features);
+        }
+        if (priority != null) {
+            priorityCounts.add(priority, features);
+        }
+    }
+
+    /**
+     * Build models from the current counts and make them visible to {@link #classify},
+     * once enough tickets have been seen.
+     */
+    synchronized void publish() {
+        if (trainedTickets >= minTrainingTickets) {
+            categoryModel = categoryCounts.toModel();
+            priorityModel = priorityCounts.toModel();
+        }
+    }
+
+    /**
+     * Whether the models have been trained on enough tickets to answer.
+     */
+    public boolean isReady() {
+        return isUsable(categoryModel) && isUsable(priorityModel);
+    }
+
+    private static boolean isUsable(Model model) {
+        return model != null && model.labels.length > 1;
+    }
+
+    /**
+     * Predict category and priority. The confidence is the lower of the two
+     * posterior probabilities.
+     *
+     * @return the prediction, or null if the classifier is not ready
+     */
+    public TriageSuggestion classify(String subject, String description) {
+        Model categories = categoryModel;
+        Model priorities = priorityModel;
+        if (!isUsable(categories) || !isUsable(priorities)) {
+            return null;
+        }
+        predictions.increment();
+        int[] features = features(subject, description);
+        Prediction category = categories.predict(features);
+        Prediction priority = priorities.predict(features);
+        return new TriageSuggestion(category.label, priority.label,
+                Math.min(category.probability, priority.probability));
+    }
+
+    /**
+     * Readiness, training size and prediction count.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", isReady());
+        result.put("trainedTickets", trainedTickets);
+        result.put("predictions", predictions.sum());
+        return result;
+    }
+
+    /**
+     * Hashed bucket of every word and adjacent word pair, with repeats.
+     */
+    static int[] features(String subject, String description) {
+        List<String> words = new ArrayList<>();
+        for (String text : new String[]{subject, description}) {
+            if (text == null) continue;
+            for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+                if (word.length() > 1) {
+                    words.add(word);
+                }
+            }
+        }
+        int[] features = new int[words.size() * 2];
+        int n = 0;
+        for (int i = 0; i < words.size(); i++) {
+            features[n++] = bucket(words.get(i));
+            if (i + 1 < words.size()) {
+                features[n++] = bucket(words.get(i) + ' ' + words.get(i + 1));
+            }
+        }
+        return n == features.length ? features : Arrays.copyOf(features, n);
+    }
+
+    private static int bucket(String feature) {
+        int h = feature.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (BUCKETS - 1);
+    }
+
+    /**
+     * Per-label document and feature counts.
+     */
+    private static final class LabelCounts {
+
+        private final Map<String, int[]> featureCounts = new HashMap<>();
+        private final Map<String, Long> featureTotals = new HashMap<>();
+        private final Map<String, Integer> documents = new HashMap<>();
+        private int totalDocuments;
+
+        void add(String label, int[] features) {
+            int[] counts = featureCounts.computeIfAbsent(label, key -> new int[BUCKETS]);
+            for (int feature : features) {
+                counts[feature]++;
+            }
+            featureTotals.merge(label, (long) features.length, Long::sum);
+            documents.merge(label, 1, Integer::sum);
+            totalDocuments++;
+        }
+
+        /**
+         * Log priors and Laplace-smoothed log likelihoods for the current counts.
+         */
+        Model toModel() {
+            String[] labels = featureCounts.keySet().toArray(String[]::new);
+            double[] logPriors = new double[labels.length];
+            float[][] logLikelihoods = new float[labels.length][BUCKETS];
+            for (int i = 0; i < labels.length; i++) {
+                logPriors[i] = Math.log((double) documents.get(labels[i]) / totalDocuments);
+                int[] counts = featureCounts.get(labels[i]);
+                double denominator = Math.log(featureTotals.get(labels[i]) + BUCKETS);
+                for (int b = 0; b < BUCKETS; b++) {
+                    logLikelihoods[i][b] = (float) (Math.log(counts[b] + 1) - denominator);
+                }
+            }
+            return new Model(labels, logPriors, logLikelihoods);
+        }
+    }
+
+    /**
+     * Immutable trained model.
+     */
+    private static final class Model {
+
+        private final String[] labels;
+        private final double[] logPriors;
+        private final float[][] logLikelihoods;
+
+        Model(String[] labels, double[] logPriors, float[][] logLikelihoods) {
+            this.labels = labels;
+            this.logPriors = logPriors;
+            this.logLikelihoods = logLikelihoods;
+        }
+
+        Prediction predict(int[] features) {
+            double[] scores = new double[labels.length];
+            int best = 0;
+            for (int i = 0; i < labels.length; i++) {
+                double score = logPriors[i];
+                for (int feature : features) {
+                    score += logLikelihoods[i][feature];
+                }
+                scores[i] = score;
+                if (score > scores[best]) {
+                    best = i;
+                }
+            }
+            // Posterior of the best label: softmax over the log scores
+            double sum = 0;
+            for (double score : scores) {
+                sum += Math.exp(score - scores[best]);
+            }
+            return new Prediction(labels[best], 1.0 / sum);
+        }
+    }
+
+    private record Prediction(String label, double probability) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.TicketCountRow;
+import com.example.helpdesk.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incrementally maintained in-memory ticket counters.
+ * 
+ * Counters are seeded from one aggregate query when the application is ready and then
+ * kept current by applying {@link TicketStatusChangedEvent}s after their transaction commits.
+ * Events that arrive while a rebuild is running are also buffered and replayed onto the new
+ * counters, so a change that commits after the query has read its rows is not lost. The
+ * counters are rebuilt on a schedule as well, which corrects any drift (for instance a change
+ * both counted by the query and replayed).
+ * Each counter is a striped {@link LongAdder}, so concurrent ticket updates never contend
+ * on a single lock and reads are O(1) with no database access.
+ * 
+ * Department and assignee counters track open tickets (anything not RESOLVED or CLOSED),
+ * which is the workload view staff need.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Component
+public class TicketCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketCounters.class);
+
+    private static final Set<String> DONE_STATUSES = Set.of("RESOLVED", "CLOSED");
+
+    private final TicketRepository ticketRepository;
+
+    /**
+     * Current counter set; null until the first rebuild completes.
+     */
+    private volatile Counts counts;
+
+    /**
+     * Events seen while a rebuild is running; null otherwise. Events take the read lock,
+     * so they never contend with each other; a rebuild takes the write lock to start
+     * buffering and to swap in the new counters.
+     */
+    private Queue<TicketStatusChangedEvent> pending;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    public TicketCounters(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    /**
+     * Rebuild all counters from the database in a single GROUP BY query.
+     * The new counter set, with the events seen meanwhile replayed onto it, replaces the
+     * old one atomically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${helpdesk.counters.reconcile-interval-ms:900000}",
+               initialDelayString = "${helpdesk.counters.reconcile-interval-ms:900000}")
+    public synchronized void rebuild() {
+        swapLock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Counts fresh = new Counts();
+        try {
+            for (TicketCountRow row : ticketRepository.countGroupByStatusDepartmentAndAssignee()) {
+                fresh.add(row.getStatus(), row.getDepartmentId(), row.getAssigneeId(), row.getCount());
+            }
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        Counts previous;
+        int replayed;
+        swapLock.writeLock().lock();
+        try {
+            replayed = pending.size();
+            pending.forEach(fresh::apply);
+            pending = null;
+            previous = counts;
+            counts = fresh;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Map<String, Long> snapshot = fresh.statusSnapshot();
+        if (previous == null) {
+            logger.info("Ticket counters rebuilt: {}", snapshot);
+        } else if (!snapshot.equals(previous.statusSnapshot())) {
+            logger.warn("Ticket counters had drifted and were corrected: {} -> {}", previous.statusSnapshot(), snapshot);
+        }
+        if (replayed > 0) {
+            logger.debug("Replayed {} ticket event(s) seen during the rebuild", replayed);
+        }
+    }
+
+    /**
+     * Apply a ticket transition as a delta once its transaction has committed.
+     * Rolled back changes never reach the counters.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketStatusChanged(TicketStatusChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            // Before the first rebuild there is nothing to update; the rebuild replays it
+            Counts current = counts;
+            if (current != null) {
+                current.apply(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the counters have been seeded and can be read.
+     */
+    public boolean isReady() {
+        return counts != null;
+    }
+
+    /**
+     * Snapshot of ticket counts per status.
+     * 
+     * @throws IllegalStateException if the counters have not been seeded yet
+     */
+    public Map<String, Long> getStatusCounts() {
+        return requireCounts().statusSnapshot();
+    }
+
+    /**
+     * Number of open tickets in a department.
+     */
+    public long getOpenCountForDepartment(Long departmentId) {
+        return sum(requireCounts().openByDepartment, departmentId);
+    }
+
+    /**
+     * Number of open tickets assigned to a staff member.
+     */
+    public long getOpenCountForAssignee(Long assigneeId) {
+        return sum(requireCounts().openByAssignee, assigneeId);
+    }
+
+    private Counts requireCounts() {
+        Counts current = counts;
+        if (current == null) {
+            throw new IllegalStateException("Ticket counters have not been initialized");
+        }
+        return current;
+    }
+
+    private static long sum(Map<Long, LongAdder> counters, Long key) {
+        if (key == null) {
+            return 0;
+        }
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * One generation of counters. Replaced wholesale on rebuild.
+     */
+    private static final class Counts {
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> openByDepartment = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> openByAssignee = new ConcurrentHashMap<>();
+
+        void apply(TicketStatusChangedEvent event) {
+            if (!event.isCreation()) {
+                add(event.getOldStatus(), event.getOldDepartmentId(), event.getOldAssigneeId(), -1);
+            }
+            add(event.getNewStatus(), event.getNewDepartmentId(), event.getNewAssigneeId(), 1);
+        }
+
+        void add(String status, Long departmentId, Long assigneeId, long delta) {
+            if (status == null) {
+                return;
+            }
+            byStatus.computeIfAbsent(status, k -> new LongAdder()).add(delta);
+
+            if (!DONE_STATUSES.contains(status)) {
+                if (departmentId != null) {
+                    openByDepartment.computeIfAbsent(departmentId, k -> new LongAdder()).add(delta);
+                }
+                if (assigneeId != null) {
+                    openByAssignee.computeIfAbsent(assigneeId, k -> new LongAdder()).add(delta);
+                }
+            }
+        }
+
+        Map<String, Long> statusSnapshot() {
+            Map<String, Long> snapshot = new HashMap<>();
+            byStatus.forEach((status, adder) -> snapshot.put(status, adder.sum()));
+            return Collections.unmodifiableMap(snapshot);
+        }
+    }
+}
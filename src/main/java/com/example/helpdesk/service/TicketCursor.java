@@ -0,0 +1,78 @@
+package com.example.helpdesk.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Encodes and decodes opaque ticket page cursors.
+ * A cursor carries the (createdAt, id) keyset of a boundary row plus the scroll direction,
+ * so every page is a single index seek regardless of how deep the user has paged.
+ * 
+ * @author Facility Helpdesk Team
+ */
+final class TicketCursor {
+
+    private static final char FORWARD = 'n';
+    private static final char BACKWARD = 'p';
+    private static final char SEPARATOR = '|';
+
+    private TicketCursor() {
+    }
+
+    /**
+     * Cursor for the page after the row with the given keyset.
+     */
+    static String next(LocalDateTime createdAt, Long id) {
+        return encode(FORWARD, createdAt, id);
+    }
+
+    /**
+     * Cursor for the page before the row with the given keyset.
+     */
+    static String previous(LocalDateTime createdAt, Long id) {
+        return encode(BACKWARD, createdAt, id);
+    }
+
+    /**
+     * Decode a cursor into a scroll position.
+     * A null or empty cursor means the first page.
+     * 
+     * @param cursor the opaque cursor token
+     * @return the keyset scroll position
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            LocalDateTime createdAt = LocalDateTime.parse(raw.substring(1, split));
+            Long id = Long.parseLong(raw.substring(split + 1));
+            Map<String, Object> keys = Map.of("createdAt", createdAt, "id", id);
+
+            switch (raw.charAt(0)) {
+                case FORWARD:
+                    return ScrollPosition.forward(keys);
+                case BACKWARD:
+                    return ScrollPosition.backward(keys);
+                default:
+                    throw new IllegalArgumentException("Invalid page cursor");
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    private static String encode(char direction, LocalDateTime createdAt, Long id) {
+        String raw = direction + createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
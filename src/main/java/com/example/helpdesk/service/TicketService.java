@@ -1,8 +1,11 @@
 package com.example.helpdesk.service;
 
 import com.example.helpdesk.entity.Ticket;
+import com.example.helpdesk.repository.TicketRow;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service interface for Ticket business logic.
@@ -70,5 +73,81 @@ public interface TicketService {
      * Assign ticket to a staff member.
      */
     Ticket assignTicket(Long ticketId, Long staffId);
+
+    /**
+     * Change a ticket's category and recompute its SLA due date.
+     * 
+     * @param ticketId the ticket ID
+     * @param categoryId the new category ID
+     * @return the updated ticket
+     * @throws IllegalArgumentException if the ticket or category is not found
+     */
+    Ticket updateTicketCategory(Long ticketId, Long categoryId);
+
+    /**
+     * Change a ticket's priority and recompute its SLA due date.
+     * 
+     * @param ticketId the ticket ID
+     * @param priority the new priority (LOW, MEDIUM, HIGH, URGENT)
+     * @return the updated ticket
+     * @throws IllegalArgumentException if the ticket is not found or the priority is invalid
+     */
+    Ticket updateTicketPriority(Long ticketId, String priority);
+
+    /**
+     * Find the most urgent ticket for a staff member to work on next:
+     * their own open ticket with the earliest due date, otherwise the
+     * earliest-due unassigned ticket.
+     * 
+     * @param staffId the staff member's user ID
+     * @return the next ticket, or empty if there is no open work
+     */
+    Optional<Ticket> nextWorkItem(Long staffId);
+
+    /**
+     * Compute due dates for one batch of open tickets created before due dates existed.
+     * 
+     * @param batchSize maximum number of tickets to update
+     * @return the number of tickets updated; 0 when nothing is left
+     */
+    int backfillDueDates(int batchSize);
+
+    /**
+     * Get one page of tickets, newest first, using keyset pagination on (createdAt, id).
+     * Rows are lightweight projections selected in a single query for list rendering.
+     * 
+     * @param status optional status filter, null or empty for all tickets
+     * @param cursor opaque cursor from a previous page, null for the first page
+     * @param size the page size
+     * @return the page with next/previous cursors
+     * @throws IllegalArgumentException if the status or cursor is invalid
+     */
+    CursorPage<TicketRow> getTicketsPage(String status, String cursor, int size);
+
+    /**
+     * Get one page of tickets created by a specific user, newest first.
+     * 
+     * @param userId the creator's user ID
+     * @param status optional status filter, null or empty for all of the user's tickets
+     * @param cursor opaque cursor from a previous page, null for the first page
+     * @param size the page size
+     * @return the page with next/previous cursors
+     * @throws IllegalArgumentException if the status or cursor is invalid
+     */
+    CursorPage<TicketRow> getTicketsPageByUser(Long userId, String status, String cursor, int size);
+
+    /**
+     * Mark the given tickets OVERDUE with batched UPDATEs.
+     * Tickets that are no longer open (CREATED, ASSIGNED, IN_PROGRESS) are left untouched.
+     * 
+     * @param ticketIds the tickets whose SLA deadline has passed
+     * @return the number of tickets marked overdue
+     */
+    int markOverdue(Collection<Long> ticketIds);
+
+    /**
+     * Count tickets created by a specific user, optionally filtered by status.
+     */
+    long countTicketsByUser(Long userId, String status);
 }
 
@@ -1,15 +1,30 @@
 package com.example.helpdesk.service;
 
+import com.example.helpdesk.entity.FeedbackCategory;
 import com.example.helpdesk.entity.Ticket;
 import com.example.helpdesk.entity.User;
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.FeedbackCategoryRepository;
 import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketRow;
+import com.example.helpdesk.repository.TicketStateRow;
 import com.example.helpdesk.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Service implementation for Ticket business logic.
@@ -24,13 +39,59 @@ public class TicketServiceImpl implements TicketService {
 
     private static final String DEFAULT_STATUS = "CREATED";
     private static final String DEFAULT_PRIORITY = "MEDIUM";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String OVERDUE_STATUS = "OVERDUE";
+
+    /**
+     * Statuses that are still subject to the SLA.
+     */
+    static final List<String> SLA_OPEN_STATUSES = List.of("CREATED", "ASSIGNED", "IN_PROGRESS");
+
+    /**
+     * Statuses a staff member can pick up from their own queue, and from the unassigned pool.
+     */
+    private static final List<String> ASSIGNED_WORK_STATUSES = List.of("OVERDUE", "ASSIGNED", "IN_PROGRESS");
+    private static final List<String> UNASSIGNED_WORK_STATUSES = List.of("OVERDUE", "CREATED");
+
+    /**
+     * SLA used for tickets without a category.
+     */
+    private static final int DEFAULT_SLA_HOURS = 72;
+
+    /**
+     * Fraction of the category SLA allowed for each priority.
+     */
+    private static final Map<String, Double> PRIORITY_SLA_FACTORS = Map.of(
+            "URGENT", 0.25,
+            "HIGH", 0.5,
+            "MEDIUM", 1.0,
+            "LOW", 1.5
+    );
+
+    /**
+     * Maximum ids per bulk UPDATE, well under SQL Server's 2100 parameter limit.
+     */
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    /**
+     * Keyset order for paginated lists. The id tie-breaker makes the order total,
+     * so rows sharing a createdAt value are never skipped or repeated between pages.
+     */
+    private static final Sort PAGE_SORT = Sort.by(Sort.Direction.DESC, "createdAt")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
 
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
+    private final FeedbackCategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TicketServiceImpl(TicketRepository ticketRepository, UserRepository userRepository) {
+    public TicketServiceImpl(TicketRepository ticketRepository, UserRepository userRepository,
+                             FeedbackCategoryRepository categoryRepository,
+                             ApplicationEventPublisher eventPublisher) {
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -39,6 +100,7 @@ public class TicketServiceImpl implements TicketService {
      * Business rules:
      * - Status is automatically set to CREATED
      * - CreatedAt timestamp is automatically set to current time
+     * - DueAt is derived from the category SLA and the priority
      * - Priority defaults to MEDIUM if not provided
      * - Validates that subject and description are not empty
      * - Validates that createdBy user is not null
@@ -75,10 +137,14 @@ public class TicketServiceImpl implements TicketService {
         ticket.setCreatedAt(java.time.LocalDateTime.now());
         logger.debug("Set createdAt timestamp to: {}", ticket.getCreatedAt());
 
+        ticket.setDueAt(computeDueAt(ticket));
+
         // Save ticket to database
         Ticket savedTicket = ticketRepository.save(ticket);
         logger.info("Ticket created successfully with ID: {}", savedTicket.getId());
 
+        eventPublisher.publishEvent(TicketStatusChangedEvent.created(savedTicket));
+
         return savedTicket;
     }
 
@@ -155,11 +221,16 @@ public class TicketServiceImpl implements TicketService {
 
         // Get ticket
         Ticket ticket = getTicketById(ticketId);
+        String oldStatus = ticket.getStatus();
 
         // Update status
         ticket.setStatus(newStatus);
         Ticket updatedTicket = ticketRepository.save(ticket);
 
+        eventPublisher.publishEvent(TicketStatusChangedEvent.transition(updatedTicket, oldStatus,
+                TicketStatusChangedEvent.departmentIdOf(updatedTicket),
+                TicketStatusChangedEvent.assigneeIdOf(updatedTicket)));
+
         logger.info("Ticket {} status updated to: {}", ticketId, newStatus);
         return updatedTicket;
     }
@@ -224,13 +295,205 @@ public class TicketServiceImpl implements TicketService {
             throw new IllegalArgumentException("Can only assign tickets to STAFF or ADMIN users");
         }
 
+        String oldStatus = ticket.getStatus();
+        Long oldAssigneeId = TicketStatusChangedEvent.assigneeIdOf(ticket);
+
         ticket.setAssignedTo(staff);
         ticket.setStatus("ASSIGNED");
         ticket.setUpdatedAt(java.time.LocalDateTime.now());
 
         Ticket updated = ticketRepository.save(ticket);
+
+        eventPublisher.publishEvent(TicketStatusChangedEvent.transition(updated, oldStatus,
+                TicketStatusChangedEvent.departmentIdOf(updated), oldAssigneeId));
         logger.info("Ticket {} assigned to {} ({})", ticketId, staff.getFullName(), staff.getEmail());
         return updated;
     }
-}
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TicketRow> getTicketsPage(String status, String cursor, int size) {
+        logger.info("Retrieving ticket page, status: {}, cursor: {}", status, cursor);
+
+        KeysetScrollPosition position = TicketCursor.decode(cursor);
+        Limit limit = toLimit(size);
+        Window<TicketRow> window;
+        if (status != null && !status.isEmpty()) {
+            validateStatus(status);
+            window = ticketRepository.findByStatus(status, position, PAGE_SORT, limit);
+        } else {
+            window = ticketRepository.findBy(position, PAGE_SORT, limit);
+        }
+        return toCursorPage(window, position, cursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TicketRow> getTicketsPageByUser(Long userId, String status, String cursor, int size) {
+        logger.info("Retrieving ticket page for user ID: {}, status: {}, cursor: {}", userId, status, cursor);
+
+        KeysetScrollPosition position = TicketCursor.decode(cursor);
+        Limit limit = toLimit(size);
+        Window<TicketRow> window;
+        if (status != null && !status.isEmpty()) {
+            validateStatus(status);
+            window = ticketRepository.findByCreatedByIdAndStatus(userId, status, position, PAGE_SORT, limit);
+        } else {
+            window = ticketRepository.findByCreatedById(userId, position, PAGE_SORT, limit);
+        }
+        return toCursorPage(window, position, cursor);
+    }
+
+    @Override
+    @Transactional
+    public Ticket updateTicketCategory(Long ticketId, Long categoryId) {
+        logger.info("Updating ticket {} category to: {}", ticketId, categoryId);
+
+        Ticket ticket = getTicketById(ticketId);
+        FeedbackCategory category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryId));
+
+        ticket.setCategory(category);
+        return saveWithRecomputedDueAt(ticket);
+    }
+
+    @Override
+    @Transactional
+    public Ticket updateTicketPriority(Long ticketId, String priority) {
+        logger.info("Updating ticket {} priority to: {}", ticketId, priority);
+
+        if (priority == null || !PRIORITY_SLA_FACTORS.containsKey(priority.toUpperCase())) {
+            throw new IllegalArgumentException("Invalid priority: " + priority +
+                    ". Valid priorities are: " + PRIORITY_SLA_FACTORS.keySet());
+        }
+
+        Ticket ticket = getTicketById(ticketId);
+        ticket.setPriority(priority.toUpperCase());
+        return saveWithRecomputedDueAt(ticket);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Ticket> nextWorkItem(Long staffId) {
+        logger.info("Finding next work item for staff {}", staffId);
+
+        Optional<Ticket> own = ticketRepository.findFirstByAssignedToIdAndStatusInOrderByDueAtAsc(
+                staffId, ASSIGNED_WORK_STATUSES);
+        if (own.isPresent()) {
+            return own;
+        }
+        return ticketRepository.findFirstByAssignedToIsNullAndStatusInOrderByDueAtAsc(UNASSIGNED_WORK_STATUSES);
+    }
+
+    @Override
+    @Transactional
+    public int backfillDueDates(int batchSize) {
+        List<Ticket> tickets = ticketRepository.findByDueAtIsNullAndStatusIn(
+                List.of("CREATED", "ASSIGNED", "IN_PROGRESS", "OVERDUE"), Limit.of(batchSize));
+        for (Ticket ticket : tickets) {
+            ticket.setDueAt(computeDueAt(ticket));
+        }
+        ticketRepository.saveAll(tickets);
+        return tickets.size();
+    }
+
+    /**
+     * Recompute the due date after a category or priority change, save, and
+     * publish the change so the SLA monitor reschedules the ticket.
+     */
+    private Ticket saveWithRecomputedDueAt(Ticket ticket) {
+        ticket.setDueAt(computeDueAt(ticket));
+        ticket.setUpdatedAt(LocalDateTime.now());
+        Ticket updated = ticketRepository.save(ticket);
+
+        eventPublisher.publishEvent(TicketStatusChangedEvent.transition(updated, updated.getStatus(),
+                TicketStatusChangedEvent.departmentIdOf(updated),
+                TicketStatusChangedEvent.assigneeIdOf(updated)));
+        return updated;
+    }
+
+    /**
+     * Due date = createdAt + category SLA hours scaled by the priority factor.
+     * Tickets without a category use the default SLA.
+     */
+    private LocalDateTime computeDueAt(Ticket ticket) {
+        int slaHours = ticket.getCategory() != null && ticket.getCategory().getSlaHours() != null
+                ? ticket.getCategory().getSlaHours()
+                : DEFAULT_SLA_HOURS;
+        double factor = ticket.getPriority() != null
+                ? PRIORITY_SLA_FACTORS.getOrDefault(ticket.getPriority().toUpperCase(), 1.0)
+                : 1.0;
+        return ticket.getCreatedAt().plusMinutes(Math.round(slaHours * 60 * factor));
+    }
+
+    @Override
+    @Transactional
+    public int markOverdue(Collection<Long> ticketIds) {
+        List<Long> ids = new ArrayList<>(ticketIds);
+        LocalDateTime now = LocalDateTime.now();
+        int marked = 0;
+
+        for (int from = 0; from < ids.size(); from += UPDATE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + UPDATE_BATCH_SIZE, ids.size()));
+
+            // Read and lock the prior state, so counters can be moved without loading entities
+            // and every row read is still in that state when the UPDATE below runs
+            List<TicketStateRow> open = ticketRepository.findStateRowsByIdInAndStatusIn(batch, SLA_OPEN_STATUSES);
+            if (open.isEmpty()) {
+                continue;
+            }
+
+            List<Long> openIds = open.stream().map(TicketStateRow::getId).toList();
+            marked += ticketRepository.updateStatusByIdIn(openIds, SLA_OPEN_STATUSES, OVERDUE_STATUS, now);
+
+            for (TicketStateRow row : open) {
+                eventPublisher.publishEvent(new TicketStatusChangedEvent(row.getId(),
+                        row.getStatus(), OVERDUE_STATUS,
+                        row.getDepartmentId(), row.getDepartmentId(),
+                        row.getAssigneeId(), row.getAssigneeId(),
+                        null));
+            }
+        }
+
+        logger.info("Marked {} ticket(s) as OVERDUE", marked);
+        return marked;
+    }
+
+    @Override
+    public long countTicketsByUser(Long userId, String status) {
+        if (status != null && !status.isEmpty()) {
+            validateStatus(status);
+            return ticketRepository.countByCreatedByIdAndStatus(userId, status);
+        }
+        return ticketRepository.countByCreatedById(userId);
+    }
+
+    private Limit toLimit(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Limit.of(Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Build next/previous cursors from the first and last rows of a window.
+     * Backward windows come back in display order; their "has next" flag means
+     * there are more rows further back.
+     */
+    private CursorPage<TicketRow> toCursorPage(Window<TicketRow> window, KeysetScrollPosition position, String cursor) {
+        List<TicketRow> content = window.getContent();
+        if (content.isEmpty()) {
+            return new CursorPage<>(content, null, null);
+        }
+
+        boolean backward = position.scrollsBackward();
+        boolean hasNext = backward || window.hasNext();
+        boolean hasPrevious = backward ? window.hasNext() : cursor != null && !cursor.isEmpty();
+
+        TicketRow first = content.get(0);
+        TicketRow last = content.get(content.size() - 1);
+        String nextCursor = hasNext ? TicketCursor.next(last.getCreatedAt(), last.getId()) : null;
+        String prevCursor = hasPrevious ? TicketCursor.previous(first.getCreatedAt(), first.getId()) : null;
+        return new CursorPage<>(content, nextCursor, prevCursor);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.helpdesk.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Service interface for aggregate ticket statistics.
+ * 
+ * @author Facility Helpdesk Team
+ */
+public interface TicketStatisticsService {
+
+    /**
+     * Get ticket counts for the dashboard.
+     * 
+     * @return ticket counts grouped by status
+     */
+    TicketStatistics getStatistics();
+
+    /**
+     * Immutable snapshot of ticket counts per status.
+     */
+    class TicketStatistics {
+        private final Map<String, Long> countsByStatus;
+
+        public TicketStatistics(Map<String, Long> countsByStatus) {
+            this.countsByStatus = Collections.unmodifiableMap(countsByStatus);
+        }
+
+        public long getCount(String status) {
+            return countsByStatus.getOrDefault(status, 0L);
+        }
+
+        public long getTotal() {
+            return countsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /**
+         * Tickets not yet picked up: CREATED + ASSIGNED.
+         */
+        public long getPending() {
+            return getCount("CREATED") + getCount("ASSIGNED");
+        }
+
+        /**
+         * Tickets that are done: RESOLVED + CLOSED.
+         */
+        public long getResolved() {
+            return getCount("RESOLVED") + getCount("CLOSED");
+        }
+
+        public long getOverdue() {
+            return getCount("OVERDUE");
+        }
+
+        public Map<String, Long> getCountsByStatus() {
+            return countsByStatus;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketStatusCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Service implementation for aggregate ticket statistics.
+ * Reads the in-memory {@link TicketCounters} once they are seeded, and falls back to
+ * a single GROUP BY query before that. Ticket entities are never loaded.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@Service
+public class TicketStatisticsServiceImpl implements TicketStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketStatisticsServiceImpl.class);
+
+    private final TicketRepository ticketRepository;
+    private final TicketCounters ticketCounters;
+
+    public TicketStatisticsServiceImpl(TicketRepository ticketRepository, TicketCounters ticketCounters) {
+        this.ticketRepository = ticketRepository;
+        this.ticketCounters = ticketCounters;
+    }
+
+    @Override
+    public TicketStatistics getStatistics() {
+        if (ticketCounters.isReady()) {
+            return new TicketStatistics(ticketCounters.getStatusCounts());
+        }
+
+        logger.debug("Ticket counters not ready, loading ticket counts grouped by status");
+
+        Map<String, Long> counts = new HashMap<>();
+        for (TicketStatusCount row : ticketRepository.countGroupByStatus()) {
+            counts.put(row.getStatus(), row.getCount());
+        }
+        return new TicketStatistics(counts);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.helpdesk.service;
+
+/**
+ * AI summary of a ticket conversation.
+ *
+ * @param summary            the summary text
+ * @param recentComments     comments given to the model word for word this time
+ * @param summarizedComments comments covered only through a stored or rolling summary
+ *
+ * @author Facility Helpdesk Team
+ */
+public record TicketSummary(String summary, int recentComments, int summarizedComments) {
+}
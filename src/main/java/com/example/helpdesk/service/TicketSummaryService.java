@@ -0,0 +1,299 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.entity.Comment;
+import com.example.helpdesk.entity.Ticket;
+import com.example.helpdesk.entity.TicketAiSummary;
+import com.example.helpdesk.repository.CommentRepository;
+import com.example.helpdesk.repository.TicketAiSummaryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ticket summarization with a bounded prompt.
+ *
+ * Summaries are stored per ticket with the id of the last comment they cover and the number
+ * of comments they cover. A ticket with no newer comments is answered from the store without
+ * calling the model; comments added since are folded into the stored summary, so only the
+ * delta is sent. Comment ids are not assigned in commit order, so a comment can appear with
+ * an id below the stored one; when the ticket's comment count does not match the stored
+ * count plus the newer comments, the summary is rebuilt in full.
+ *
+ * The first summary of a ticket takes comments newest-first into a fixed budget and
+ * gives them to the model word for word. Older comments are folded, oldest-first and one
+ * budget-sized segment at a time, into a rolling summary whose steps are cached by input.
+ * A summary built while some step failed is returned but not stored, so the next request
+ * rebuilds it in full rather than keeping the gap.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Service
+public class TicketSummaryService {
+
+    /**
+     * Rough size of a Gemini token in characters of English text, used to turn the token
+     * budget into a character budget without a tokenizer.
+     */
+    static final int CHARS_PER_TOKEN = 4;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private static final String UNSUMMARIZED = "(some earlier comments could not be summarized)";
+
+    private final CommentRepository commentRepository;
+    private final TicketAiSummaryRepository summaryRepository;
+    private final AiService aiService;
+    private final int budgetChars;
+    private final int maxCommentChars;
+
+    /**
+     * Rolling summary steps, keyed by a hash of the previous summary and the segment.
+     */
+    private final Cache<String, String> historySummaries;
+
+    private final LongAdder storedAnswers = new LongAdder();
+    private final LongAdder incrementalUpdates = new LongAdder();
+    private final LongAdder fullSummaries = new LongAdder();
+    private final LongAdder degradedSummaries = new LongAdder();
+
+    public TicketSummaryService(
+            CommentRepository commentRepository,
+            TicketAiSummaryRepository summaryRepository,
+            AiService aiService,
+            @Value("${helpdesk.ai.summary.budget-tokens:3000}") int budgetTokens,
+            @Value("${helpdesk.ai.summary.max-comment-chars:2000}") int maxCommentChars,
+            @Value("${helpdesk.ai.summary.history-cache.max-entries:5000}") long maxCachedHistory,
+            @Value("${helpdesk.ai.summary.history-cache.ttl-hours:24}") long historyTtlHours) {
+        if (maxCommentChars * 2 > budgetTokens * CHARS_PER_TOKEN) {
+            throw new IllegalArgumentException("max-comment-chars must be at most half the summary budget");
+        }
+        this.commentRepository = commentRepository;
+        this.summaryRepository = summaryRepository;
+        this.aiService = aiService;
+        this.budgetChars = budgetTokens * CHARS_PER_TOKEN;
+        this.maxCommentChars = maxCommentChars;
+        this.historySummaries = Caffeine.newBuilder()
+                .maximumSize(maxCachedHistory)
+                .expireAfterAccess(Duration.ofHours(historyTtlHours))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Summarize a ticket and its conversation, reusing the stored summary when there is one.
+     *
+     * @return the summary, or null if the model gave no answer
+     */
+    public CompletableFuture<TicketSummary> summarize(Ticket ticket) {
+        TicketAiSummary stored = summaryRepository.findById(ticket.getId()).orElse(null);
+        if (stored == null) {
+            return summarizeAll(ticket);
+        }
+
+        long afterId = stored.getLastCommentId() != null ? stored.getLastCommentId() : 0L;
+        List<Comment> added = commentRepository.findByTicketIdAndIdGreaterThanOrderByIdAsc(ticket.getId(), afterId);
+        if (commentRepository.countByTicketId(ticket.getId()) != stored.getCommentCount() + added.size()) {
+            // A comment the stored summary missed, or one deleted since: the delta is not enough
+            return summarizeAll(ticket);
+        }
+        if (added.isEmpty()) {
+            storedAnswers.increment();
+            return CompletableFuture.completedFuture(
+                    new TicketSummary(stored.getSummary(), 0, stored.getCommentCount()));
+        }
+
+        incrementalUpdates.increment();
+        List<String> lines = added.stream().map(comment -> formatComment(comment, maxCommentChars)).toList();
+        CompletableFuture<String> updated = CompletableFuture.completedFuture(stored.getSummary());
+        for (String segment : segments(lines, 0, lines.size(), budgetChars)) {
+            updated = updated.thenCompose(previous -> previous == null
+                    ? CompletableFuture.completedFuture(null)
+                    : aiService.updateSummary(ticket.getSubject(), previous, segment));
+        }
+        return updated.thenApply(summary -> {
+            if (summary == null) return null;
+            int commentCount = stored.getCommentCount() + added.size();
+            store(ticket.getId(), summary, added.get(added.size() - 1).getId(), commentCount);
+            return new TicketSummary(summary, added.size(), stored.getCommentCount());
+        });
+    }
+
+    /**
+     * Summarize the whole conversation: the newest comments within budget, the rest as
+     * a rolling summary.
+     */
+    private CompletableFuture<TicketSummary> summarizeAll(Ticket ticket) {
+        fullSummaries.increment();
+        List<Comment> comments = commentRepository.findByTicketIdOrderByCreatedAtAsc(ticket.getId());
+        List<String> lines = comments.stream()
+                .map(comment -> formatComment(comment, maxCommentChars))
+                .toList();
+        Long lastCommentId = comments.stream().map(Comment::getId).max(Long::compare).orElse(null);
+        ThreadWindow window = window(lines, budgetChars);
+
+        return rollingSummary(window.olderSegments())
+                .thenCompose(history -> aiService.summarizeTicket(
+                                ticket.getSubject(),
+                                truncate(ticket.getDescription(), maxCommentChars),
+                                conversation(history.text(), window))
+                        .thenApply(summary -> {
+                            if (summary == null) return null;
+                            if (history.degraded()) {
+                                degradedSummaries.increment();
+                            } else {
+                                store(ticket.getId(), summary, lastCommentId, lines.size());
+                            }
+                            return new TicketSummary(summary, window.recentCount(), lines.size() - window.recentCount());
+                        }));
+    }
+
+    /**
+     * Save a summary unless one covering later comments was saved meanwhile.
+     */
+    private void store(Long ticketId, String summary, Long lastCommentId, int commentCount) {
+        TicketAiSummary current = summaryRepository.findById(ticketId).orElse(null);
+        if (current != null && current.getLastCommentId() != null
+                && (lastCommentId == null || current.getLastCommentId() > lastCommentId)) {
+            return;
+        }
+        summaryRepository.save(TicketAiSummary.builder()
+                .ticketId(ticketId)
+                .summary(summary)
+                .lastCommentId(lastCommentId)
+                .commentCount(commentCount)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * How summaries were answered, and size, hits and misses of the rolling summary cache.
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = historySummaries.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("budgetChars", budgetChars);
+        result.put("storedAnswers", storedAnswers.sum());
+        result.put("incrementalUpdates", incrementalUpdates.sum());
+        result.put("fullSummaries", fullSummaries.sum());
+        result.put("degradedNotStored", degradedSummaries.sum());
+        result.put("cachedSteps", historySummaries.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+
+    /**
+     * Fold the segments, oldest first, into one summary.
+     *
+     * @return the summary, with null text if there are no segments
+     */
+    private CompletableFuture<History> rollingSummary(List<String> segments) {
+        CompletableFuture<History> rolling = CompletableFuture.completedFuture(new History(null, false));
+        for (String segment : segments) {
+            rolling = rolling.thenCompose(previous -> historyStep(previous, segment));
+        }
+        return rolling;
+    }
+
+    private CompletableFuture<History> historyStep(History previous, String segment) {
+        String previousText = previous.text();
+        String key = AiService.sha256((previousText != null ? previousText : "") + '\u0000' + segment);
+        String cached = historySummaries.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new History(cached, previous.degraded()));
+        }
+        return aiService.summarizeHistory(previousText, segment).thenApply(summary -> {
+            if (summary == null) {
+                // Not cached, so the step is tried again next time
+                return new History(previousText != null ? previousText + "\n" + UNSUMMARIZED : UNSUMMARIZED, true);
+            }
+            historySummaries.put(key, summary);
+            return new History(summary, previous.degraded());
+        });
+    }
+
+    private static String conversation(String history, ThreadWindow window) {
+        if (history == null) {
+            return window.recent().isEmpty() ? "(no comments)" : window.recent();
+        }
+        return "Earlier comments, summarized:\n" + history + "\n\nLatest comments:\n" + window.recent();
+    }
+
+    /**
+     * Split comment lines into the newest that fit in {@code budgetChars}, and the older
+     * ones packed oldest-first into segments of at most {@code budgetChars}. Packing from
+     * the oldest keeps the early segments, and so their cached summaries, unchanged as
+     * comments are added.
+     */
+    static ThreadWindow window(List<String> lines, int budgetChars) {
+        int start = lines.size();
+        int used = 0;
+        while (start > 0 && used + lines.get(start - 1).length() + 1 <= budgetChars) {
+            start--;
+            used += lines.get(start).length() + 1;
+        }
+
+        return new ThreadWindow(String.join("\n", lines.subList(start, lines.size())),
+                lines.size() - start, segments(lines, 0, start, budgetChars));
+    }
+
+    /**
+     * Pack lines {@code from} to {@code to}, in order, into segments of at most {@code budgetChars}.
+     */
+    static List<String> segments(List<String> lines, int from, int to, int budgetChars) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            String line = lines.get(i);
+            if (!segment.isEmpty() && segment.length() + line.length() + 1 > budgetChars) {
+                segments.add(segment.toString());
+                segment.setLength(0);
+            }
+            segment.append(line).append('\n');
+        }
+        if (!segment.isEmpty()) {
+            segments.add(segment.toString());
+        }
+        return segments;
+    }
+
+    static String formatComment(Comment comment, int maxChars) {
+        String author = comment.getAuthor() != null
+                ? comment.getAuthor().getFullName() + " (" + comment.getAuthor().getRole() + ")"
+                : "Unknown";
+        String time = comment.getCreatedAt() != null ? comment.getCreatedAt().format(TIME_FORMAT) : "";
+        return "[" + time + "] " + author + ": " + truncate(comment.getContent(), maxChars);
+    }
+
+    private static String truncate(String text, int maxChars) {
+        if (text == null) return "";
+        String flat = text.strip();
+        return flat.length() <= maxChars ? flat : flat.substring(0, maxChars) + " [...]";
+    }
+
+    /**
+     * Comments given word for word, and the older comments as summary segments.
+     */
+    record ThreadWindow(String recent, int recentCount, List<String> olderSegments) {
+    }
+
+    /**
+     * Rolling summary of older comments, and whether any step of it fell back to the
+     * unsummarized marker.
+     */
+    private record History(String text, boolean degraded) {
+    }
+}
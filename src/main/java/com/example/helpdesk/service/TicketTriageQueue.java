@@ -0,0 +1,271 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketTrainingRow;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background AI triage of new tickets, whatever path created them.
+ *
+ * Ticket creation events are taken after commit into a bounded queue. Worker virtual
+ * threads take tickets in batches, load their text in one query, ask
+ * {@link AiService#triage} (local classifier first, then Gemini) one ticket at a time so
+ * the AI bulkhead is not flooded, and write the suggestions back in one transaction.
+ * Only the suggestion columns are written; the ticket's own category and priority are
+ * left for staff.
+ *
+ * When the queue is full the creating thread waits briefly, then gives up on the
+ * ticket. Tickets that could not be queued, triaged or saved go to a bounded
+ * dead-letter list, from which an admin can queue them again.
+ *
+ * @author Facility Helpdesk Team
+ */
+@Component
+public class TicketTriageQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketTriageQueue.class);
+
+    private final TicketRepository ticketRepository;
+    private final AiService aiService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<Long> queue;
+    private final int capacity;
+    private final int workerCount;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final int deadLetterCapacity;
+
+    private final Deque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger deadLetterCount = new AtomicInteger();
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder triaged = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public TicketTriageQueue(
+            TicketRepository ticketRepository,
+            AiService aiService,
+            PlatformTransactionManager transactionManager,
+            @Value("${helpdesk.ai.triage-queue.capacity:1000}") int capacity,
+            @Value("${helpdesk.ai.triage-queue.workers:2}") int workerCount,
+            @Value("${helpdesk.ai.triage-queue.batch-size:20}") int batchSize,
+            @Value("${helpdesk.ai.triage-queue.offer-timeout-ms:100}") long offerTimeoutMs,
+            @Value("${helpdesk.ai.triage-queue.dead-letter-capacity:500}") int deadLetterCapacity) {
+        if (workerCount < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Triage queue needs at least one worker and a batch size of at least 1");
+        }
+        this.ticketRepository = ticketRepository;
+        this.aiService = aiService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.deadLetterCapacity = deadLetterCapacity;
+    }
+
+    /**
+     * Start the worker threads.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!workers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("ai-triage-" + (i + 1)).start(this::work));
+        }
+        logger.info("AI triage queue started with {} worker(s)", workerCount);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /**
+     * Queue each new ticket once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketStatusChanged(TicketStatusChangedEvent event) {
+        if (!event.isCreation()) {
+            return;
+        }
+        if (!aiService.isSuggestionAvailable()) {
+            skipped.increment();
+            return;
+        }
+        enqueue(event.getTicketId());
+    }
+
+    /**
+     * Add a ticket to the queue, waiting up to the offer timeout for space.
+     *
+     * @return false if the queue stayed full; the ticket is then dead-lettered
+     */
+    public boolean enqueue(Long ticketId) {
+        boolean queued;
+        try {
+            queued = queue.offer(ticketId, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            rejected.increment();
+            logger.warn("AI triage queue full ({} tickets), ticket {} not queued", capacity, ticketId);
+            deadLetter(ticketId, "Queue full");
+            return false;
+        }
+        enqueued.increment();
+        return true;
+    }
+
+    private void work() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("AI triage batch failed: {}", e.getMessage(), e);
+                batch.forEach(id -> deadLetter(id, "Unexpected error: " + e.getMessage()));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Triage one batch of tickets and save the suggestions.
+     */
+    void processBatch(List<Long> ticketIds) {
+        List<TicketTrainingRow> rows = ticketRepository.findTrainingRowsByIdIn(ticketIds);
+
+        Map<Long, TriageSuggestion> suggestions = new LinkedHashMap<>();
+        for (TicketTrainingRow row : rows) {
+            TriageSuggestion suggestion;
+            try {
+                suggestion = aiService.triage(row.getSubject(), row.getDescription()).join();
+            } catch (CompletionException e) {
+                suggestion = null;
+            }
+            if (suggestion != null) {
+                suggestions.put(row.getId(), suggestion);
+            } else {
+                deadLetter(row.getId(), "No suggestion from classifier or AI");
+            }
+        }
+        if (suggestions.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> suggestions.forEach((id, suggestion) ->
+                    ticketRepository.updateTriageSuggestion(id, suggestion.category(), suggestion.priority(),
+                            suggestion.confidence())));
+            triaged.add(suggestions.size());
+        } catch (RuntimeException e) {
+            logger.error("Could not save AI triage suggestions: {}", e.getMessage());
+            suggestions.keySet().forEach(id -> deadLetter(id, "Could not save suggestion: " + e.getMessage()));
+        }
+    }
+
+    private void deadLetter(Long ticketId, String reason) {
+        failed.increment();
+        deadLetters.addLast(new DeadLetter(ticketId, reason, LocalDateTime.now()));
+        if (deadLetterCount.incrementAndGet() > deadLetterCapacity && deadLetters.pollFirst() != null) {
+            deadLetterCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Tickets that could not be triaged, oldest first.
+     */
+    public List<DeadLetter> getDeadLetters() {
+        return List.copyOf(deadLetters);
+    }
+
+    /**
+     * Queue every dead-lettered ticket again, without waiting for space.
+     *
+     * @return the number of tickets queued
+     */
+    public int retryDeadLetters() {
+        int requeued = 0;
+        DeadLetter letter;
+        List<DeadLetter> stillFull = new ArrayList<>();
+        while ((letter = deadLetters.pollFirst()) != null) {
+            deadLetterCount.decrementAndGet();
+            if (queue.offer(letter.ticketId())) {
+                enqueued.increment();
+                requeued++;
+            } else {
+                stillFull.add(letter);
+            }
+        }
+        stillFull.forEach(full -> {
+            deadLetters.addLast(full);
+            deadLetterCount.incrementAndGet();
+        });
+        logger.info("Queued {} dead-lettered ticket(s) for AI triage again", requeued);
+        return requeued;
+    }
+
+    /**
+     * Queue depth and counts of queued, triaged, failed, rejected and skipped tickets.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queued", queue.size());
+        result.put("capacity", capacity);
+        result.put("workers", workers.size());
+        result.put("enqueued", enqueued.sum());
+        result.put("triaged", triaged.sum());
+        result.put("failed", failed.sum());
+        result.put("rejectedQueueFull", rejected.sum());
+        result.put("skippedUnavailable", skipped.sum());
+        result.put("deadLetters", deadLetterCount.get());
+        return result;
+    }
+
+    /**
+     * A ticket that could not be triaged, and why.
+     */
+    public record DeadLetter(Long ticketId, String reason, LocalDateTime failedAt) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.helpdesk.service;
+
+/**
+ * Category and priority suggested for a ticket by one AI triage call.
+ * Either field may be null when the model's answer was not one of the allowed values.
+ *
+ * @param category   one of the helpdesk category names
+ * @param priority   LOW, MEDIUM, HIGH or URGENT
+ * @param confidence the model's own confidence, from 0.0 to 1.0
+ * @author Facility Helpdesk Team
+ */
+public record TriageSuggestion(String category, String priority, double confidence) {
+}
@@ -0,0 +1,26 @@
+package com.example.helpdesk.service;
+
+/**
+ * One data row of a user import sheet, as raw cell text.
+ * Columns missing from the sheet are {@code null}.
+ * 
+ * @param rowNumber 1-based sheet row number, as shown in Excel
+ * @author Facility Helpdesk Team
+ */
+record UserImportRow(
+        int rowNumber,
+        String email,
+        String password,
+        String fullName,
+        String role,
+        String studentCode,
+        String className,
+        String position) {
+
+    /**
+     * Copy of this row with the password replaced, e.g. by its hash.
+     */
+    UserImportRow withPassword(String newPassword) {
+        return new UserImportRow(rowNumber, email, newPassword, fullName, role, studentCode, className, position);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.helpdesk.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the Gemini JSON handling in AiService against the previous
+ * {@code String.replace} escaping and {@code indexOf} scanning, for summary prompts
+ * built from comment threads of increasing size.
+ *
+ * Not run by Surefire. Run with:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.helpdesk.service.AiJsonBenchmark
+ * </pre>
+ *
+ * @author Facility Helpdesk Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiJsonBenchmark {
+
+    /**
+     * Number of comments in the ticket thread.
+     */
+    @Param({"10", "200", "2000"})
+    public int comments;
+
+    private String prompt;
+    private String responseString;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder thread = new StringBuilder("Summarize this ticket.\nSubject: Projector broken\n\nConversation:\n");
+        for (int i = 0; i < comments; i++) {
+            thread.append("Staff ").append(i % 7).append(": We checked the \"HDMI\" cable in Lab 301\\B, ")
+                  .append("swapped the\tadapter and rebooted the projector. Still no image; café supplier ")
+                  .append("says a replacement lamp ships Monday.\n");
+        }
+        prompt = thread.toString();
+
+        String summary = new String(AiService.requestBody(prompt.substring(0, Math.min(prompt.length(), 4000)), null),
+                StandardCharsets.UTF_8);
+        responseString = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":"
+                + summary.substring(summary.indexOf("\"text\":") + 7, summary.indexOf("}]}]"))
+                + "}],\"role\":\"model\"},\"finishReason\":\"STOP\",\"index\":0}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":" + prompt.length() / 4 + "}}";
+        responseBytes = responseString.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeRequestLegacy() {
+        String escapedPrompt = prompt
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+        String requestBody = String.format(
+            "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}]," +
+            "\"generationConfig\":{\"temperature\":0.3,\"maxOutputTokens\":1024%s}}",
+            escapedPrompt, "");
+        // What BodyPublishers.ofString does with the body
+        return requestBody.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeRequestStreaming() {
+        return AiService.requestBody(prompt, null);
+    }
+
+    @Benchmark
+    public String readResponseLegacy() {
+        // What BodyHandlers.ofString does with the body
+        String json = new String(responseBytes, StandardCharsets.UTF_8);
+        String marker = "\"text\"";
+        int textIndex = json.indexOf(marker);
+        int colonIndex = json.indexOf(":", textIndex + marker.length());
+        int startQuote = json.indexOf("\"", colonIndex + 1);
+        int endQuote = startQuote + 1;
+        while (endQuote < json.length()) {
+            if (json.charAt(endQuote) == '\"' && json.charAt(endQuote - 1) != '\\') {
+                break;
+            }
+            endQuote++;
+        }
+        return json.substring(startQuote + 1, endQuote)
+                   .replace("\\n", "\n")
+                   .replace("\\r", "\r")
+                   .replace("\\t", "\t")
+                   .replace("\\\"", "\"")
+                   .replace("\\\\", "\\")
+                   .trim();
+    }
+
+    @Benchmark
+    public String readResponseStreaming() {
+        return AiService.extractTextFromResponse(responseBytes).trim();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AiJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
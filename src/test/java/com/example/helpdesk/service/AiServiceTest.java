@@ -0,0 +1,175 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.repository.TicketRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for AiService.
+ * Tests the suggestion cache keys, Gemini JSON reading and writing, triage parsing,
+ * the local classifier fast path and coalescing of concurrent calls.
+ *
+ * @author Facility Helpdesk Team
+ */
+@DisplayName("AiService Tests")
+class AiServiceTest {
+
+    private static TicketClassifier untrainedClassifier() {
+        return new TicketClassifier(mock(TicketRepository.class), 50);
+    }
+
+    @Test
+    @DisplayName("Should map case and whitespace variants of a ticket to the same cache key")
+    void testSuggestionKey_NormalizesText() {
+        // Act
+        String key = AiService.suggestionKey("category", "Projector broken", "Lab 301 projector  shows no image");
+        String variant = AiService.suggestionKey("category", "  projector BROKEN ", "Lab 301 projector\nshows no image");
+
+        // Assert
+        assertEquals(key, variant);
+        assertNotEquals(key, AiService.suggestionKey("category", "Projector broken", "Lab 302 projector"));
+    }
+
+    @Test
+    @DisplayName("Should keep category and priority suggestions apart")
+    void testSuggestionKey_SeparatesKinds() {
+        // Act
+        String category = AiService.suggestionKey("category", "Wifi down", "No connection in library");
+        String priority = AiService.suggestionKey("priority", "Wifi down", "No connection in library");
+
+        // Assert
+        assertNotEquals(category, priority);
+    }
+
+    @Test
+    @DisplayName("Should join all parts of the first candidate with text, decoding escapes")
+    void testExtractTextFromResponse_MultiPartAndEscapes() {
+        // Arrange
+        String json = "{\"candidates\":[" +
+                "{\"finishReason\":\"SAFETY\",\"content\":{\"role\":\"model\"}}," +
+                "{\"content\":{\"parts\":[{\"text\":\"Caf\\u00e9 \\\"Lab\\\" \"},{\"inlineData\":{}}," +
+                "{\"text\":\"is\\nopen\"}]},\"index\":1}," +
+                "{\"content\":{\"parts\":[{\"text\":\"second\"}]}}]," +
+                "\"usageMetadata\":{\"totalTokenCount\":12}}";
+
+        // Act
+        String text = AiService.extractTextFromResponse(json.getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals("Caf\u00e9 \"Lab\" is\nopen", text);
+        assertNull(AiService.extractTextFromResponse("{\"candidates\":[]}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(AiService.extractTextFromResponse("{\"candidates\":[".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Should write a request body that round-trips any prompt text")
+    void testRequestBody_EscapesPrompt() throws Exception {
+        // Arrange
+        String prompt = "Quote \" backslash \\ tab \t newline \n control \u0001 emoji \uD83D\uDE00 caf\u00e9";
+
+        // Act
+        JsonNode body = new ObjectMapper().readTree(AiService.requestBody(prompt, "{\"type\":\"OBJECT\"}"));
+
+        // Assert
+        assertEquals(prompt, body.path("contents").path(0).path("parts").path(0).path("text").asText());
+        assertEquals("application/json", body.path("generationConfig").path("responseMimeType").asText());
+        assertEquals("OBJECT", body.path("generationConfig").path("responseSchema").path("type").asText());
+        assertTrue(new ObjectMapper().readTree(AiService.requestBody(prompt, null))
+                .path("generationConfig").path("responseSchema").isMissingNode());
+    }
+
+    @Test
+    @DisplayName("Should read triage JSON and keep only allowed values")
+    void testParseTriage_NormalizesAndValidates() {
+        // Act
+        TriageSuggestion triage = AiService.parseTriage(
+                "{\"category\":\"network issue\",\"priority\":\" high \",\"confidence\":1.4}");
+        TriageSuggestion partial = AiService.parseTriage(
+                "{\"category\":\"Plumbing\",\"priority\":\"URGENT\",\"confidence\":0.6}");
+
+        // Assert
+        assertEquals(new TriageSuggestion("Network Issue", "HIGH", 1.0), triage);
+        assertEquals(new TriageSuggestion(null, "URGENT", 0.6), partial);
+        assertNull(AiService.parseTriage("{\"category\":\"Plumbing\"}"));
+        assertNull(AiService.parseTriage("Network Issue"));
+    }
+
+    @Test
+    @DisplayName("Should share one upstream call between concurrent callers with the same key")
+    void testSingleFlight_CoalescesConcurrentCalls() {
+        // Arrange
+        AiService aiService = new AiService(untrainedClassifier(), 100, 60, 8, 5, 30000);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        // Act
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(aiService.singleFlight("prompt:wifi", () -> {
+                upstreamCalls.incrementAndGet();
+                return upstream;
+            }));
+        }
+        upstream.complete("Network Issue");
+
+        // Assert
+        results.forEach(result -> assertEquals("Network Issue", result.join()));
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(7L, aiService.getInFlightStats().get("coalesced"));
+        assertEquals(0, aiService.getInFlightStats().get("inFlight"));
+    }
+
+    @Test
+    @DisplayName("Should not let one caller's cancellation fail the shared call")
+    void testSingleFlight_CancelDoesNotAffectOthers() {
+        // Arrange
+        AiService aiService = new AiService(untrainedClassifier(), 100, 60, 8, 5, 30000);
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = aiService.singleFlight("prompt:wifi", () -> upstream);
+        CompletableFuture<String> second = aiService.singleFlight("prompt:wifi", () -> upstream);
+
+        // Act
+        first.cancel(true);
+        upstream.complete("Network Issue");
+
+        // Assert
+        assertTrue(first.isCancelled());
+        assertEquals("Network Issue", second.join());
+    }
+
+    @Test
+    @DisplayName("Should answer triage from a confident local classifier without an API key")
+    void testTriage_UsesConfidentLocalClassifier() {
+        // Arrange
+        TicketClassifier classifier = new TicketClassifier(mock(TicketRepository.class), 2);
+        for (int i = 0; i < 20; i++) {
+            classifier.learn("Wifi down", "No internet connection in the library", "Network Issue", "HIGH");
+            classifier.learn("Room dirty", "Please clean the floor and empty the bins", "Cleaning Request", "LOW");
+        }
+        classifier.publish();
+        AiService aiService = new AiService(classifier, 100, 60, 8, 5, 30000);
+        ReflectionTestUtils.setField(aiService, "localConfidenceThreshold", 0.8);
+
+        // Act
+        TriageSuggestion triage = aiService.triage("Wifi is down", "no internet in library").join();
+
+        // Assert
+        assertFalse(aiService.isAvailable());
+        assertTrue(aiService.isSuggestionAvailable());
+        assertEquals("Network Issue", triage.category());
+        assertEquals("HIGH", triage.priority());
+        assertEquals(1L, aiService.getClassifierStats().get("localAnswers"));
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.repository.TicketRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for AiService against a local stub of the Gemini API.
+ * Tests latency budgets, the circuit breaker and the bulkhead with slow and failing upstreams.
+ *
+ * @author Facility Helpdesk Team
+ */
+@DisplayName("AiService Upstream Tests")
+class AiServiceUpstreamTest {
+
+    private static final String OK_BODY =
+            "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Hello from stub\"}]}}]}";
+
+    private static final String STREAM_BODY =
+            "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Hello \"}]}}]}\r\n\r\n" +
+            "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"from \"}]}}]}\r\n\r\n" +
+            "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"stub\"}]}}]}\r\n\r\n";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMs;
+    private volatile long streamEventDelayMs;
+    private volatile long bodyStallMs;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean stream = exchange.getRequestURI().getPath().endsWith(":streamGenerateContent");
+            if (stream && status == 200 && streamEventDelayMs > 0) {
+                sendSlowStream(exchange);
+                return;
+            }
+            String ok = stream ? STREAM_BODY : OK_BODY;
+            byte[] body = (status == 200 ? ok : "{\"error\":{}}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (bodyStallMs > 0) {
+                    // Headers and a few bytes now, the rest much later
+                    out.write(body, 0, 10);
+                    out.flush();
+                    Thread.sleep(bodyStallMs);
+                    out.write(body, 10, body.length - 10);
+                } else {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // Client gave up on the body
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Send the stream events one at a time, chunked, pausing between them.
+     */
+    private void sendSlowStream(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (String event : STREAM_BODY.split("(?<=\r\n\r\n)")) {
+                out.write(event.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(streamEventDelayMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client stopped reading
+        }
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private AiService aiService(int maxConcurrentCalls, int failureThreshold, long breakerOpenMs, long budgetMs) {
+        AiService aiService = new AiService(new TicketClassifier(mock(TicketRepository.class), 50),
+                100, 60, maxConcurrentCalls, failureThreshold, breakerOpenMs);
+        ReflectionTestUtils.setField(aiService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(aiService, "model", "gemini-test");
+        ReflectionTestUtils.setField(aiService, "baseUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(aiService, "suggestionBudgetMs", budgetMs);
+        ReflectionTestUtils.setField(aiService, "replyBudgetMs", budgetMs);
+        ReflectionTestUtils.setField(aiService, "summaryBudgetMs", budgetMs);
+        return aiService;
+    }
+
+    @Test
+    @DisplayName("Should answer with no suggestion once the latency budget is spent")
+    void testSlowUpstream_CompletesWithinBudget() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 5, 30_000, 300);
+        delayMs = 3_000;
+
+        // Act
+        long start = System.nanoTime();
+        String reply = aiService.suggestReply("Projector broken", "Lab 301", "CREATED").get(2, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertNull(reply);
+        assertTrue(elapsedMs < 1_500, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after repeated failures and then fail fast")
+    void testFailingUpstream_OpensCircuit() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 3, 30_000, 2_000);
+        status = 500;
+        for (int i = 0; i < 3; i++) {
+            assertNull(aiService.suggestReply("Wifi down " + i, "Library", "CREATED").get(5, TimeUnit.SECONDS));
+        }
+
+        // Act
+        CompletableFuture<String> refused = aiService.suggestReply("Wifi down again", "Library", "CREATED");
+
+        // Assert
+        assertTrue(refused.isDone());
+        assertNull(refused.get());
+        assertEquals(3, requests.get());
+        assertEquals("OPEN", aiService.getInFlightStats().get("circuit"));
+        assertEquals(1L, aiService.getInFlightStats().get("rejectedOpenCircuit"));
+    }
+
+    @Test
+    @DisplayName("Should let one probe through after the open period and close on success")
+    void testRecoveredUpstream_HalfOpenProbeClosesCircuit() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 1, 200, 2_000);
+        status = 500;
+        assertNull(aiService.suggestReply("Wifi down", "Library", "CREATED").get(5, TimeUnit.SECONDS));
+        status = 200;
+        assertNull(aiService.suggestReply("Wifi still down", "Library", "CREATED").get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.get());
+
+        // Act
+        Thread.sleep(300);
+        String reply = aiService.suggestReply("Wifi down for hours", "Library", "CREATED").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("Hello from stub", reply);
+        assertEquals(2, requests.get());
+        assertEquals("CLOSED", aiService.getInFlightStats().get("circuit"));
+    }
+
+    @Test
+    @DisplayName("Should refuse calls beyond the bulkhead instead of queueing them")
+    void testBulkheadFull_RefusesImmediately() throws Exception {
+        // Arrange
+        AiService aiService = aiService(1, 5, 30_000, 5_000);
+        delayMs = 500;
+        CompletableFuture<String> first = aiService.suggestReply("Projector broken", "Lab 301", "CREATED");
+
+        // Act
+        CompletableFuture<String> second = aiService.suggestReply("Aircon leaking", "Room 101", "CREATED");
+
+        // Assert
+        assertTrue(second.isDone());
+        assertNull(second.get());
+        assertEquals(1L, aiService.getInFlightStats().get("rejectedBulkhead"));
+        assertEquals("Hello from stub", first.get(5, TimeUnit.SECONDS));
+        assertEquals("CLOSED", aiService.getInFlightStats().get("circuit"));
+    }
+
+    @Test
+    @DisplayName("Should stream reply text to the consumer in order")
+    void testStreamReply_DeliversChunksInOrder() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 5, 30_000, 2_000);
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        // Act
+        aiService.streamReply("Projector broken", "Lab 301", "CREATED", chunks::add).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("Hello ", "from ", "stub"), chunks);
+        assertEquals(0, aiService.getInFlightStats().get("activeUpstream"));
+        assertEquals("CLOSED", aiService.getInFlightStats().get("circuit"));
+    }
+
+    @Test
+    @DisplayName("Should fail the stream and count a breaker failure on an upstream error")
+    void testStreamReply_UpstreamError() {
+        // Arrange
+        AiService aiService = aiService(8, 1, 30_000, 2_000);
+        status = 500;
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        // Act
+        CompletableFuture<Void> stream = aiService.streamReply("Wifi down", "Library", "CREATED", chunks::add);
+
+        // Assert
+        assertThrows(ExecutionException.class, () -> stream.get(5, TimeUnit.SECONDS));
+        assertTrue(chunks.isEmpty());
+        assertEquals("OPEN", aiService.getInFlightStats().get("circuit"));
+    }
+
+    @Test
+    @DisplayName("Should not count a stream cancelled mid-way as an upstream failure")
+    void testStreamReply_CancelledMidStreamKeepsCircuitClosed() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 1, 30_000, 5_000);
+        streamEventDelayMs = 300;
+        CountDownLatch firstChunk = new CountDownLatch(1);
+        CompletableFuture<Void> stream = aiService.streamReply("Projector broken", "Lab 301", "CREATED",
+                chunk -> firstChunk.countDown());
+        assertTrue(firstChunk.await(5, TimeUnit.SECONDS));
+
+        // Act
+        stream.cancel(false);
+        awaitNoActiveCalls(aiService);
+
+        // Assert
+        assertEquals("CLOSED", aiService.getInFlightStats().get("circuit"));
+        assertEquals("Hello from stub", aiService.suggestReply("Wifi down", "Library", "CREATED").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should not count a failing chunk consumer as an upstream failure")
+    void testStreamReply_ConsumerFailureKeepsCircuitClosed() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 1, 30_000, 5_000);
+        streamEventDelayMs = 300;
+
+        // Act
+        CompletableFuture<Void> stream = aiService.streamReply("Projector broken", "Lab 301", "CREATED", chunk -> {
+            throw new IllegalStateException("client gone");
+        });
+
+        // Assert
+        assertThrows(ExecutionException.class, () -> stream.get(5, TimeUnit.SECONDS));
+        awaitNoActiveCalls(aiService);
+        assertEquals("CLOSED", aiService.getInFlightStats().get("circuit"));
+    }
+
+    private static void awaitNoActiveCalls(AiService aiService) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Integer.valueOf(0).equals(aiService.getInFlightStats().get("activeUpstream"))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, aiService.getInFlightStats().get("activeUpstream"));
+    }
+
+    @Test
+    @DisplayName("Should abort a call whose body stalls after the headers and count it as a timeout")
+    void testStalledBody_AbortsExchangeAndCountsFailure() throws Exception {
+        // Arrange
+        AiService aiService = aiService(8, 1, 30_000, 300);
+        bodyStallMs = 10_000;
+
+        // Act
+        long start = System.nanoTime();
+        String reply = aiService.suggestReply("Projector broken", "Lab 301", "CREATED").get(2, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        awaitNoActiveCalls(aiService);
+
+        // Assert
+        assertNull(reply);
+        assertTrue(elapsedMs < 1_500, "took " + elapsedMs + " ms");
+        Map<String, Object> stats = aiService.getInFlightStats();
+        assertEquals(1L, stats.get("timedOut"));
+        assertEquals("OPEN", stats.get("circuit"));
+    }
+}
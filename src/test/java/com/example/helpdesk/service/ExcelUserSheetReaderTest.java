@@ -0,0 +1,99 @@
+package com.example.helpdesk.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExcelUserSheetReader.
+ * Tests header mapping and row streaming against small generated workbooks.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@DisplayName("ExcelUserSheetReader Tests")
+class ExcelUserSheetReaderTest {
+
+    private static byte[] workbook(Object[]... rows) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Users");
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(i);
+                for (int j = 0; j < rows[i].length; j++) {
+                    Object value = rows[i][j];
+                    if (value instanceof Number number) {
+                        row.createCell(j).setCellValue(number.doubleValue());
+                    } else if (value != null) {
+                        row.createCell(j).setCellValue(value.toString());
+                    }
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    @DisplayName("Should map columns by header name and stream every data row")
+    void testRead_MapsColumnsByHeader() throws IOException {
+        // Arrange: columns in a non-default order, numeric student code, a missing cell
+        byte[] file = workbook(
+                new Object[]{"Role", "Full Name", "email", "Password", "Student Code"},
+                new Object[]{"STUDENT", "Student One", "s1@fpt.edu.vn", "12345", 12345},
+                new Object[]{"STAFF", "Staff One", "st1@fpt.edu.vn", "12345", null});
+        List<UserImportRow> rows = new ArrayList<>();
+
+        // Act
+        int count = ExcelUserSheetReader.read(new ByteArrayInputStream(file), rows::add);
+
+        // Assert
+        assertEquals(2, count);
+        UserImportRow first = rows.get(0);
+        assertEquals(2, first.rowNumber());
+        assertEquals("s1@fpt.edu.vn", first.email());
+        assertEquals("Student One", first.fullName());
+        assertEquals("STUDENT", first.role());
+        assertEquals("12345", first.studentCode());
+        assertNull(first.className());
+        assertNull(rows.get(1).studentCode());
+        assertEquals(3, rows.get(1).rowNumber());
+    }
+
+    @Test
+    @DisplayName("Should reject a sheet without the required columns")
+    void testRead_MissingRequiredColumn() throws IOException {
+        // Arrange
+        byte[] file = workbook(
+                new Object[]{"Email", "Full Name", "Role"},
+                new Object[]{"s1@fpt.edu.vn", "Student One", "STUDENT"});
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ExcelUserSheetReader.read(new ByteArrayInputStream(file), row -> { }));
+        assertTrue(exception.getMessage().contains("Missing required columns"));
+    }
+
+    @Test
+    @DisplayName("Should report zero rows for a header-only sheet")
+    void testRead_HeaderOnly() throws IOException {
+        // Arrange
+        byte[] file = workbook(new Object[]{"Email", "Password", "Full Name", "Role"});
+
+        // Act
+        int count = ExcelUserSheetReader.read(new ByteArrayInputStream(file), row -> fail("No data rows expected"));
+
+        // Assert
+        assertEquals(0, count);
+    }
+}
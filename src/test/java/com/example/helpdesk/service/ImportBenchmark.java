@@ -0,0 +1,197 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.HelpdeskApplication;
+import com.example.helpdesk.repository.StaffRepository;
+import com.example.helpdesk.repository.StudentRepository;
+import com.example.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH measurement of {@link ExcelImportService#importUsersFromExcel} on a generated
+ * sheet of new students and staff, with the users, students and staff ids mapped as
+ * pooled sequences (as shipped) and as IDENTITY columns (as before), on the same code.
+ * The IDENTITY run maps the ids through {@code benchmark/identity-ids-orm.xml}.
+ *
+ * Passwords are not BCrypted here, so the time is the database side of the import:
+ * chunk validation queries and inserts. Rows per second is {@code rows} divided by the
+ * score. At the end of each run the JDBC statements Hibernate prepared per imported row
+ * are printed: batched inserts keep this well below one.
+ *
+ * Not run by Surefire. Run with:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.helpdesk.service.ImportBenchmark
+ * </pre>
+ * This uses an in-memory H2 database, fresh for each id mapping. To measure SQL Server
+ * instead, add {@code -Dspring.datasource.url=... -Dspring.datasource.username=...
+ * -Dspring.datasource.password=...} pointing at an empty scratch database, and run one
+ * mapping per database with {@code -p ids=SEQUENCE} or {@code -p ids=IDENTITY}.
+ *
+ * @author Facility Helpdesk Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportBenchmark {
+
+    private static final String[] HEADER = {
+            "Email", "Password", "Full Name", "Role", "Student Code", "Class Name", "Position", "Department Name"};
+
+    /**
+     * Number of data rows in the sheet.
+     */
+    @Param({"5000"})
+    public int rows;
+
+    /**
+     * How the users, students and staff ids are generated: SEQUENCE or IDENTITY.
+     */
+    @Param({"SEQUENCE", "IDENTITY"})
+    public String ids;
+
+    private ConfigurableApplicationContext context;
+    private ExcelImportService importService;
+    private Path sheet;
+    private int run;
+    private Statistics statistics;
+    private long importedRows;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(HelpdeskApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "spring.jpa.properties.hibernate.order_updates=true",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+                        "logging.level.com.example.helpdesk=WARN",
+                        "spring.jpa.mapping-resources=" + ("IDENTITY".equals(ids) ? "benchmark/identity-ids-orm.xml" : ""))
+                .run();
+        importService = new ExcelImportService(
+                context.getBean(UserRepository.class),
+                context.getBean(StudentRepository.class),
+                context.getBean(StaffRepository.class),
+                context.getBean(EntityManager.class),
+                context.getBean(PlatformTransactionManager.class),
+                NoOpPasswordEncoder.getInstance());
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Setup(Level.Invocation)
+    public void writeSheet() throws IOException {
+        // Fresh emails and student codes each time, so every row is inserted
+        sheet = Files.createTempFile("import-benchmark", ".xlsx");
+        // Short enough for the 20-character student code column
+        String prefix = Long.toString(System.currentTimeMillis() % 60_000_000L, 36) + "r" + run++ + "x";
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); OutputStream out = Files.newOutputStream(sheet)) {
+            Sheet users = workbook.createSheet("Users");
+            Row header = users.createRow(0);
+            for (int i = 0; i < HEADER.length; i++) {
+                header.createCell(i).setCellValue(HEADER[i]);
+            }
+            for (int i = 1; i <= rows; i++) {
+                Row row = users.createRow(i);
+                boolean student = i % 10 != 0;
+                row.createCell(0).setCellValue(prefix + "u" + i + "@bench.edu.vn");
+                row.createCell(1).setCellValue("password" + i);
+                row.createCell(2).setCellValue("Bench User " + i);
+                row.createCell(3).setCellValue(student ? "STUDENT" : "STAFF");
+                if (student) {
+                    row.createCell(4).setCellValue("SV" + prefix + i);
+                    row.createCell(5).setCellValue("SE1801");
+                } else {
+                    row.createCell(6).setCellValue("Technician");
+                }
+            }
+            workbook.write(out);
+        }
+    }
+
+    @Benchmark
+    public ExcelImportService.ImportResult importSheet() {
+        ExcelImportService.ImportResult result = new ExcelImportService.ImportResult();
+        importService.importUsersFromExcel(sheet, result);
+        if (result.getSuccessCount() != rows) {
+            throw new IllegalStateException("Imported " + result.getSuccessCount() + " of " + rows + " rows: "
+                    + result.getErrors());
+        }
+        importedRows += result.getSuccessCount();
+        return result;
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteSheet() throws IOException {
+        Files.deleteIfExists(sheet);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        System.out.printf("%n%s ids: JDBC statements prepared: %d for %d rows, %.3f per row%n",
+                ids, statistics.getPrepareStatementCount(), importedRows,
+                (double) statistics.getPrepareStatementCount() / importedRows);
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // The forked JVM does not inherit system properties, so pass the datasource on
+        List<String> springProperties = new ArrayList<>(System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("spring."))
+                .map(name -> "-D" + name + "=" + System.getProperty(name))
+                .toList());
+        if (System.getProperty("spring.datasource.url") == null) {
+            // System properties, so they win over a local application.properties
+            springProperties.addAll(List.of(
+                    "-Dspring.datasource.url=jdbc:h2:mem:import-benchmark;DB_CLOSE_DELAY=-1",
+                    "-Dspring.datasource.driver-class-name=org.h2.Driver",
+                    "-Dspring.datasource.username=sa",
+                    "-Dspring.datasource.password=",
+                    "-Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "-Dspring.jpa.hibernate.ddl-auto=create-drop"));
+        }
+        new Runner(new OptionsBuilder()
+                .include(ImportBenchmark.class.getSimpleName())
+                .jvmArgsAppend(springProperties.toArray(String[]::new))
+                .build()).run();
+    }
+}
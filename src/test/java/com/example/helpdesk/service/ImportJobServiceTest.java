@@ -0,0 +1,90 @@
+package com.example.helpdesk.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ImportJobService.
+ * Tests job completion and the bound on queued imports.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportJobService Tests")
+class ImportJobServiceTest {
+
+    @Mock
+    private ExcelImportService excelImportService;
+
+    private ImportJobService importJobService;
+
+    private static MockMultipartFile upload() {
+        return new MockMultipartFile("file", "users.xlsx", null, new byte[]{1, 2, 3});
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (importJobService != null) {
+            importJobService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run a submitted import and record its counts")
+    void testSubmit_RunsJobToCompletion() throws Exception {
+        // Arrange
+        importJobService = new ImportJobService(excelImportService, 1, 1);
+        doAnswer(invocation -> {
+            ExcelImportService.ImportResult result = invocation.getArgument(1);
+            result.incrementSuccess();
+            result.incrementFailed();
+            result.addError("Row 3: Email is required");
+            return null;
+        }).when(excelImportService).importUsersFromExcel(any(Path.class), any());
+
+        // Act
+        ImportJob job = importJobService.submit(upload());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getResult().getProcessedCount());
+        assertEquals(1, job.getResult().getErrors().size());
+        assertSame(job, importJobService.getJob(job.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should reject uploads once the pool and queue are full")
+    void testSubmit_RejectsWhenQueueFull() throws Exception {
+        // Arrange: one worker blocked on the first job, one queue slot
+        importJobService = new ImportJobService(excelImportService, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(excelImportService).importUsersFromExcel(any(Path.class), any());
+
+        // Act
+        ImportJob running = importJobService.submit(upload());
+        ImportJob queued = importJobService.submit(upload());
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> importJobService.submit(upload()));
+        release.countDown();
+        assertNotEquals(running.getId(), queued.getId());
+    }
+}
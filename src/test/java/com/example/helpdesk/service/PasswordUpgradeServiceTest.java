@@ -0,0 +1,95 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.entity.MaintenanceMarker;
+import com.example.helpdesk.entity.User;
+import com.example.helpdesk.repository.MaintenanceMarkerRepository;
+import com.example.helpdesk.repository.UserPasswordRow;
+import com.example.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PasswordUpgradeService.
+ * Tests the completion marker and upgrading plaintext passwords.
+ *
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PasswordUpgradeService Tests")
+class PasswordUpgradeServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MaintenanceMarkerRepository markerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private PasswordUpgradeService passwordUpgradeService;
+
+    private static UserPasswordRow row(Long id, String password) {
+        return new UserPasswordRow() {
+            public Long getId() { return id; }
+            public String getPassword() { return password; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        passwordUpgradeService = new PasswordUpgradeService(
+                userRepository, markerRepository, passwordEncoder, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should not touch the users table once the marker exists")
+    void testUpgrade_SkipsWhenMarkerExists() {
+        // Arrange
+        when(markerRepository.existsById(PasswordUpgradeService.MARKER)).thenReturn(true);
+
+        // Act
+        int upgraded = passwordUpgradeService.upgradePlaintextPasswords();
+
+        // Assert
+        assertEquals(0, upgraded);
+        verifyNoInteractions(userRepository);
+        verify(markerRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should hash plaintext passwords and record the marker")
+    void testUpgrade_HashesPlaintextAndRecordsMarker() {
+        // Arrange
+        User alice = User.builder().id(1L).email("alice@fpt.edu.vn").password("alice123").build();
+        User bob = User.builder().id(2L).email("bob@fpt.edu.vn").password("changed-meanwhile").build();
+        when(markerRepository.existsById(PasswordUpgradeService.MARKER)).thenReturn(false);
+        when(userRepository.findNonBcryptPasswordsAfter(eq(0L), any()))
+                .thenReturn(List.of(row(1L, "alice123"), row(2L, "bob123")));
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(alice, bob));
+
+        // Act
+        int upgraded = passwordUpgradeService.upgradePlaintextPasswords();
+
+        // Assert
+        assertEquals(1, upgraded);
+        assertTrue(passwordEncoder.matches("alice123", alice.getPassword()));
+        assertEquals("changed-meanwhile", bob.getPassword());
+        verify(markerRepository).save(argThat((MaintenanceMarker marker) ->
+                PasswordUpgradeService.MARKER.equals(marker.getName())));
+    }
+}
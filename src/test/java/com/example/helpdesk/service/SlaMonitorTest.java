@@ -0,0 +1,102 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SlaMonitor.
+ * Tests flushing expired deadlines, replacement of stale deadlines, and retry after a
+ * failed update.
+ *
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SlaMonitor Tests")
+class SlaMonitorTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketService ticketService;
+
+    private SlaMonitor slaMonitor;
+
+    @BeforeEach
+    void setUp() {
+        slaMonitor = new SlaMonitor(ticketRepository, ticketService);
+    }
+
+    private static TicketStatusChangedEvent scheduled(long ticketId, LocalDateTime dueAt) {
+        return new TicketStatusChangedEvent(ticketId, "CREATED", "ASSIGNED", null, null, null, 9L, dueAt);
+    }
+
+    @Test
+    @DisplayName("Should mark only tickets past their deadline as overdue")
+    void testFlushExpired_MarksExpiredTickets() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        slaMonitor.onTicketStatusChanged(scheduled(1L, now.minusMinutes(5)));
+        slaMonitor.onTicketStatusChanged(scheduled(2L, now.minusMinutes(1)));
+        slaMonitor.onTicketStatusChanged(scheduled(3L, now.plusHours(4)));
+
+        // Act
+        slaMonitor.flushExpired();
+        slaMonitor.flushExpired();
+
+        // Assert
+        verify(ticketService).markOverdue(List.of(1L, 2L));
+        assertEquals(1, slaMonitor.getTrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should skip stale deadlines of rescheduled and resolved tickets")
+    void testFlushExpired_SkipsStaleDeadlines() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        slaMonitor.onTicketStatusChanged(scheduled(1L, now.minusMinutes(5)));
+        slaMonitor.onTicketStatusChanged(scheduled(1L, now.plusHours(4)));
+        slaMonitor.onTicketStatusChanged(scheduled(2L, now.minusMinutes(5)));
+        slaMonitor.onTicketStatusChanged(new TicketStatusChangedEvent(2L, "ASSIGNED", "RESOLVED", null, null, 9L, 9L, null));
+
+        // Act
+        slaMonitor.flushExpired();
+
+        // Assert
+        verify(ticketService, never()).markOverdue(any());
+        assertEquals(1, slaMonitor.getTrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should track tickets again when marking them overdue fails")
+    void testFlushExpired_RetriesAfterFailure() {
+        // Arrange
+        slaMonitor.onTicketStatusChanged(scheduled(1L, LocalDateTime.now().minusMinutes(5)));
+        when(ticketService.markOverdue(List.of(1L)))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(1);
+
+        // Act
+        slaMonitor.flushExpired();
+        int trackedAfterFailure = slaMonitor.getTrackedCount();
+        slaMonitor.flushExpired();
+
+        // Assert
+        assertEquals(1, trackedAfterFailure);
+        verify(ticketService, times(2)).markOverdue(List.of(1L));
+        assertEquals(0, slaMonitor.getTrackedCount());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketTrainingRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TicketClassifier.
+ * Tests incremental training from ticket rows, including tickets committed out of id
+ * order, and prediction.
+ *
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketClassifier Tests")
+class TicketClassifierTest {
+
+    /**
+     * Tickets in these tests are created one minute apart, ticket n at minute n.
+     */
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    private static TicketTrainingRow row(long id, String subject, String description, String category, String priority) {
+        return new TicketTrainingRow() {
+            public Long getId() { return id; }
+            public LocalDateTime getCreatedAt() { return BASE.plusMinutes(id); }
+            public String getSubject() { return subject; }
+            public String getDescription() { return description; }
+            public String getCategoryName() { return category; }
+            public String getPriority() { return priority; }
+        };
+    }
+
+    private static List<TicketTrainingRow> rows(long firstId, int count) {
+        List<TicketTrainingRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i * 3L;
+            rows.add(row(id, "Wifi down", "No internet connection in the library", "Network Issue", "HIGH"));
+            rows.add(row(id + 1, "Projector broken", "The projector in Lab 301 shows no image", "Hardware Issue", "MEDIUM"));
+            rows.add(row(id + 2, "Water on the floor", "Sparks from the power outlet near the sink", "Electrical Issue", "URGENT"));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Should not answer until trained on enough tickets")
+    void testClassify_NotReadyBeforeTraining() {
+        // Arrange
+        TicketClassifier classifier = new TicketClassifier(ticketRepository, 50);
+        when(ticketRepository.findTrainingRowsAfter(any(), eq(0L), any())).thenReturn(rows(1, 5));
+
+        // Act
+        classifier.train();
+
+        // Assert
+        assertFalse(classifier.isReady());
+        assertNull(classifier.classify("Wifi down", "library"));
+    }
+
+    @Test
+    @DisplayName("Should train incrementally from new tickets and predict both labels")
+    void testTrain_IncrementalAndPredicts() {
+        // Arrange
+        TicketClassifier classifier = new TicketClassifier(ticketRepository, 30);
+        when(ticketRepository.findTrainingRowsAfter(any(), eq(0L), any())).thenReturn(rows(1, 10));
+        // Later runs read the last ten minutes again: tickets 21-30 come back with the new ones
+        when(ticketRepository.findTrainingRowsAfter(eq(BASE.plusMinutes(20)), eq(0L), any()))
+                .thenReturn(rows(1, 20).subList(20, 60));
+        when(ticketRepository.findTrainingRowsAfter(eq(BASE.plusMinutes(50)), eq(0L), any()))
+                .thenReturn(rows(1, 20).subList(50, 60));
+
+        // Act
+        classifier.train();
+        classifier.train();
+        classifier.train();
+        TriageSuggestion network = classifier.classify("Internet down", "wifi not working in library");
+        TriageSuggestion electrical = classifier.classify("Sparks", "power outlet sparks near the sink");
+
+        // Assert
+        assertTrue(classifier.isReady());
+        assertEquals(60, classifier.getStats().get("trainedTickets"));
+        assertEquals("Network Issue", network.category());
+        assertEquals("HIGH", network.priority());
+        assertTrue(network.confidence() > 0.8);
+        assertEquals("Electrical Issue", electrical.category());
+        assertEquals("URGENT", electrical.priority());
+        verify(ticketRepository).findTrainingRowsAfter(eq(BASE.plusMinutes(20)), eq(0L), any());
+        verify(ticketRepository).findTrainingRowsAfter(eq(BASE.plusMinutes(50)), eq(0L), any());
+    }
+
+    @Test
+    @DisplayName("Should pick up a ticket that committed after a ticket with a higher id")
+    void testTrain_PicksUpLateCommittedTicket() {
+        // Arrange: ticket 25 was still uncommitted when the first run read tickets up to 30
+        TicketClassifier classifier = new TicketClassifier(ticketRepository, 10);
+        List<TicketTrainingRow> all = rows(1, 10);
+        List<TicketTrainingRow> committedFirst = new ArrayList<>(all);
+        TicketTrainingRow late = committedFirst.remove(24);
+        when(ticketRepository.findTrainingRowsAfter(any(), eq(0L), any())).thenReturn(committedFirst);
+        when(ticketRepository.findTrainingRowsAfter(eq(BASE.plusMinutes(20)), eq(0L), any()))
+                .thenReturn(all.subList(20, 30));
+
+        // Act
+        classifier.train();
+        int afterFirstRun = (Integer) classifier.getStats().get("trainedTickets");
+        classifier.train();
+
+        // Assert
+        assertEquals(25L, late.getId());
+        assertEquals(29, afterFirstRun);
+        assertEquals(30, classifier.getStats().get("trainedTickets"));
+    }
+
+    @Test
+    @DisplayName("Should classify in well under a millisecond")
+    void testClassify_IsFast() {
+        // Arrange
+        TicketClassifier classifier = new TicketClassifier(ticketRepository, 30);
+        when(ticketRepository.findTrainingRowsAfter(any(), eq(0L), any())).thenReturn(rows(1, 20));
+        classifier.train();
+        for (int i = 0; i < 1_000; i++) {
+            classifier.classify("Projector broken", "The projector in Lab 301 shows no image at all");
+        }
+
+        // Act
+        int runs = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            classifier.classify("Projector broken", "The projector in Lab 301 shows no image at all");
+        }
+        long averageNanos = (System.nanoTime() - start) / runs;
+
+        // Assert
+        assertTrue(averageNanos < 1_000_000, "average " + averageNanos + " ns");
+    }
+}
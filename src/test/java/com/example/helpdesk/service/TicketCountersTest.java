@@ -0,0 +1,145 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.TicketCountRow;
+import com.example.helpdesk.repository.TicketRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TicketCounters.
+ * Tests seeding from the aggregate query, applying lifecycle events as deltas, events
+ * during a rebuild, and reconciling drifted counters.
+ * 
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketCounters Tests")
+class TicketCountersTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private TicketCounters ticketCounters;
+
+    private static TicketCountRow row(String status, Long departmentId, Long assigneeId, long count) {
+        return new TicketCountRow() {
+            public String getStatus() { return status; }
+            public Long getDepartmentId() { return departmentId; }
+            public Long getAssigneeId() { return assigneeId; }
+            public long getCount() { return count; }
+        };
+    }
+
+    @Test
+    @DisplayName("Should not be ready and ignore events before the first rebuild")
+    void testNotReadyBeforeRebuild() {
+        ticketCounters.onTicketStatusChanged(new TicketStatusChangedEvent(1L, null, "CREATED", null, null, null, null, null));
+
+        assertFalse(ticketCounters.isReady());
+        assertThrows(IllegalStateException.class, () -> ticketCounters.getStatusCounts());
+    }
+
+    @Test
+    @DisplayName("Should seed counters from one aggregate query")
+    void testRebuild_SeedsFromAggregateQuery() {
+        when(ticketRepository.countGroupByStatusDepartmentAndAssignee()).thenReturn(List.of(
+                row("CREATED", 1L, null, 3),
+                row("ASSIGNED", 1L, 7L, 2),
+                row("CLOSED", 1L, 7L, 5)));
+
+        ticketCounters.rebuild();
+
+        assertTrue(ticketCounters.isReady());
+        assertEquals(3L, ticketCounters.getStatusCounts().get("CREATED"));
+        assertEquals(5L, ticketCounters.getStatusCounts().get("CLOSED"));
+        assertEquals(5, ticketCounters.getOpenCountForDepartment(1L));
+        assertEquals(2, ticketCounters.getOpenCountForAssignee(7L));
+        verify(ticketRepository, times(1)).countGroupByStatusDepartmentAndAssignee();
+    }
+
+    @Test
+    @DisplayName("Should apply creation, assignment and resolution as deltas")
+    void testEvents_ApplyTransitions() {
+        when(ticketRepository.countGroupByStatusDepartmentAndAssignee()).thenReturn(List.of());
+        ticketCounters.rebuild();
+
+        ticketCounters.onTicketStatusChanged(new TicketStatusChangedEvent(1L, null, "CREATED", null, 2L, null, null, null));
+        ticketCounters.onTicketStatusChanged(new TicketStatusChangedEvent(1L, "CREATED", "ASSIGNED", 2L, 2L, null, 9L, null));
+
+        assertEquals(0L, ticketCounters.getStatusCounts().get("CREATED"));
+        assertEquals(1L, ticketCounters.getStatusCounts().get("ASSIGNED"));
+        assertEquals(1, ticketCounters.getOpenCountForDepartment(2L));
+        assertEquals(1, ticketCounters.getOpenCountForAssignee(9L));
+
+        ticketCounters.onTicketStatusChanged(new TicketStatusChangedEvent(1L, "ASSIGNED", "RESOLVED", 2L, 2L, 9L, 9L, null));
+
+        assertEquals(1L, ticketCounters.getStatusCounts().get("RESOLVED"));
+        assertEquals(0, ticketCounters.getOpenCountForDepartment(2L));
+        assertEquals(0, ticketCounters.getOpenCountForAssignee(9L));
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent updates")
+    void testEvents_ConcurrentCreations() throws InterruptedException {
+        when(ticketRepository.countGroupByStatusDepartmentAndAssignee()).thenReturn(List.of());
+        ticketCounters.rebuild();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            long id = i;
+            executor.submit(() -> ticketCounters.onTicketStatusChanged(
+                    new TicketStatusChangedEvent(id, null, "CREATED", null, 1L, null, null, null)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_000L, ticketCounters.getStatusCounts().get("CREATED"));
+        assertEquals(10_000, ticketCounters.getOpenCountForDepartment(1L));
+    }
+
+    @Test
+    @DisplayName("Should keep an event that arrives after the rebuild query has read the table")
+    void testRebuild_ReplaysEventsSeenDuringQuery() {
+        when(ticketRepository.countGroupByStatusDepartmentAndAssignee()).thenAnswer(call -> {
+            // Commits after the rows were read, and its listener runs before the swap
+            ticketCounters.onTicketStatusChanged(new TicketStatusChangedEvent(4L, null, "CREATED", null, 1L, null, null, null));
+            return List.of(row("CREATED", 1L, null, 3));
+        });
+
+        ticketCounters.rebuild();
+
+        assertEquals(4L, ticketCounters.getStatusCounts().get("CREATED"));
+        assertEquals(4, ticketCounters.getOpenCountForDepartment(1L));
+    }
+
+    @Test
+    @DisplayName("Should correct drifted counters on the next rebuild")
+    void testRebuild_ReconcilesDrift() {
+        when(ticketRepository.countGroupByStatusDepartmentAndAssignee())
+                .thenReturn(List.of(row("CREATED", 1L, null, 3)))
+                .thenReturn(List.of(row("CREATED", 1L, null, 2), row("ASSIGNED", 1L, 9L, 1)));
+        ticketCounters.rebuild();
+        // A change that never reached the counters
+        assertEquals(3L, ticketCounters.getStatusCounts().get("CREATED"));
+
+        ticketCounters.rebuild();
+
+        assertEquals(2L, ticketCounters.getStatusCounts().get("CREATED"));
+        assertEquals(1L, ticketCounters.getStatusCounts().get("ASSIGNED"));
+        assertEquals(1, ticketCounters.getOpenCountForAssignee(9L));
+    }
+}
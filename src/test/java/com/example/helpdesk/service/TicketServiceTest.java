@@ -1,20 +1,27 @@
 package com.example.helpdesk.service;
 
+import com.example.helpdesk.entity.FeedbackCategory;
 import com.example.helpdesk.entity.Ticket;
 import com.example.helpdesk.entity.User;
+import com.example.helpdesk.event.TicketStatusChangedEvent;
 import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketStateRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,6 +37,9 @@ class TicketServiceTest {
     @Mock
     private TicketRepository ticketRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TicketServiceImpl ticketService;
 
@@ -225,7 +235,79 @@ class TicketServiceTest {
         assertEquals("HIGH", result.getPriority());
         verify(ticketRepository, times(1)).save(any(Ticket.class));
     }
-}
 
+    @Test
+    @DisplayName("Should publish creation event with the saved status")
+    void testCreateTicket_PublishesStatusChangedEvent() {
+        // Arrange
+        Ticket savedTicket = Ticket.builder()
+                .id(1L)
+                .subject("Test Subject")
+                .description("Test Description")
+                .status("CREATED")
+                .priority("MEDIUM")
+                .createdBy(testUser)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        when(ticketRepository.save(any(Ticket.class))).thenReturn(savedTicket);
+
+        // Act
+        ticketService.createTicket(testTicket);
+
+        // Assert
+        ArgumentCaptor<TicketStatusChangedEvent> captor = ArgumentCaptor.forClass(TicketStatusChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        assertTrue(captor.getValue().isCreation());
+        assertEquals(1L, captor.getValue().getTicketId());
+        assertEquals("CREATED", captor.getValue().getNewStatus());
+    }
+
+    @Test
+    @DisplayName("Should derive dueAt from category SLA scaled by priority")
+    void testCreateTicket_SetsDueAtFromCategoryAndPriority() {
+        // Arrange
+        testTicket.setPriority("HIGH");
+        testTicket.setCategory(FeedbackCategory.builder().id(1L).name("Network Issue").slaHours(6).build());
+
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Ticket result = ticketService.createTicket(testTicket);
+
+        // Assert: HIGH priority gets half of the 6 hour SLA
+        assertEquals(result.getCreatedAt().plusHours(3), result.getDueAt());
+    }
+
+    @Test
+    @DisplayName("Should mark the locked open tickets overdue in one update and publish their prior status")
+    void testMarkOverdue_PublishesPriorStatusOfLockedTickets() {
+        // Arrange
+        // Ticket 2 was resolved before the read, so the locked read skips it
+        when(ticketRepository.findStateRowsByIdInAndStatusIn(eq(List.of(1L, 2L, 3L)), any()))
+                .thenReturn(List.of(stateRow(1L, "ASSIGNED"), stateRow(3L, "CREATED")));
+        when(ticketRepository.updateStatusByIdIn(eq(List.of(1L, 3L)), any(), eq("OVERDUE"), any()))
+                .thenReturn(2);
+
+        // Act
+        int marked = ticketService.markOverdue(List.of(1L, 2L, 3L));
 
+        // Assert
+        assertEquals(2, marked);
+        verify(ticketRepository, times(1)).updateStatusByIdIn(any(), any(), any(), any());
+        ArgumentCaptor<TicketStatusChangedEvent> captor = ArgumentCaptor.forClass(TicketStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertEquals(List.of(1L, 3L), captor.getAllValues().stream().map(TicketStatusChangedEvent::getTicketId).toList());
+        assertEquals(List.of("ASSIGNED", "CREATED"),
+                captor.getAllValues().stream().map(TicketStatusChangedEvent::getOldStatus).toList());
+    }
 
+    private static TicketStateRow stateRow(Long id, String status) {
+        return new TicketStateRow() {
+            public Long getId() { return id; }
+            public String getStatus() { return status; }
+            public Long getDepartmentId() { return 4L; }
+            public Long getAssigneeId() { return 9L; }
+        };
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.entity.Comment;
+import com.example.helpdesk.entity.Ticket;
+import com.example.helpdesk.entity.TicketAiSummary;
+import com.example.helpdesk.entity.User;
+import com.example.helpdesk.repository.CommentRepository;
+import com.example.helpdesk.repository.TicketAiSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TicketSummaryService.
+ * Tests stored summaries and their incremental update, the comment budget, and
+ * rolling summaries of older comments with their cache.
+ *
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketSummaryService Tests")
+class TicketSummaryServiceTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private TicketAiSummaryRepository summaryRepository;
+
+    @Mock
+    private AiService aiService;
+
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        ticket = Ticket.builder().id(7L).subject("Projector broken").description("Lab 301 projector shows no image").build();
+    }
+
+    private static List<Comment> comments(int count) {
+        User staff = User.builder().fullName("Staff Member").role("STAFF").build();
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            comments.add(Comment.builder()
+                    .id((long) i)
+                    .content("Update " + i + ": checked the cable and the lamp again, still no image on the screen.")
+                    .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0).plusHours(i))
+                    .author(staff)
+                    .build());
+        }
+        return comments;
+    }
+
+    @Test
+    @DisplayName("Should send a short thread word for word without history calls")
+    void testSummarize_ShortThreadFitsBudget() throws Exception {
+        // Arrange
+        TicketSummaryService service = new TicketSummaryService(commentRepository, summaryRepository, aiService, 3000, 2000, 100, 24);
+        when(commentRepository.findByTicketIdOrderByCreatedAtAsc(7L)).thenReturn(comments(3));
+        when(aiService.summarizeTicket(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("Summary"));
+
+        // Act
+        TicketSummary summary = service.summarize(ticket).get();
+
+        // Assert
+        ArgumentCaptor<String> conversation = ArgumentCaptor.forClass(String.class);
+        verify(aiService).summarizeTicket(eq("Projector broken"), anyString(), conversation.capture());
+        assertTrue(conversation.getValue().startsWith("[01/01/2026 09:00] Staff Member (STAFF): Update 0"));
+        assertTrue(conversation.getValue().contains("Update 2"));
+        assertEquals(new TicketSummary("Summary", 3, 0), summary);
+        verify(aiService, never()).summarizeHistory(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep the newest comments within budget and roll older ones into a cached summary")
+    void testSummarize_LongThreadUsesRollingSummary() throws Exception {
+        // Arrange: 250 tokens = 1000 chars, about 8 comments per segment
+        TicketSummaryService service = new TicketSummaryService(commentRepository, summaryRepository, aiService, 250, 400, 100, 24);
+        when(commentRepository.findByTicketIdOrderByCreatedAtAsc(7L)).thenReturn(comments(40));
+        when(aiService.summarizeHistory(any(), anyString()))
+                .thenAnswer(call -> CompletableFuture.completedFuture("History " + call.getArgument(0)));
+        when(aiService.summarizeTicket(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("Summary"));
+
+        // Act
+        TicketSummary first = service.summarize(ticket).get();
+        service.summarize(ticket).get();
+
+        // Assert
+        ArgumentCaptor<String> conversation = ArgumentCaptor.forClass(String.class);
+        verify(aiService, times(2)).summarizeTicket(anyString(), anyString(), conversation.capture());
+        String prompt = conversation.getValue();
+        assertTrue(prompt.startsWith("Earlier comments, summarized:\nHistory History"));
+        assertTrue(prompt.contains("Update 39"));
+        assertFalse(prompt.contains("Update 0:"));
+        assertTrue(prompt.length() < 1000 + 200, "prompt of " + prompt.length() + " chars");
+        assertEquals(40, first.recentComments() + first.summarizedComments());
+        assertTrue(first.summarizedComments() > 0);
+        long steps = (Long) service.getStats().get("cachedSteps");
+        assertTrue(steps >= 3);
+        // The second run took every step from the cache
+        verify(aiService, times((int) steps)).summarizeHistory(any(), anyString());
+        assertEquals(steps, service.getStats().get("hits"));
+        verify(aiService).summarizeHistory(isNull(), startsWith("[01/01/2026 09:00]"));
+    }
+
+    @Test
+    @DisplayName("Should not store a summary with a failed history step, and rebuild it next time")
+    void testSummarize_FailedHistoryStepIsNotStored() throws Exception {
+        // Arrange
+        TicketSummaryService service = new TicketSummaryService(commentRepository, summaryRepository, aiService, 250, 400, 100, 24);
+        when(commentRepository.findByTicketIdOrderByCreatedAtAsc(7L)).thenReturn(comments(40));
+        when(aiService.summarizeHistory(notNull(), anyString()))
+                .thenAnswer(call -> CompletableFuture.completedFuture("History " + call.getArgument(0)));
+        // The first segment fails once, then succeeds
+        when(aiService.summarizeHistory(isNull(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.completedFuture("History"));
+        when(aiService.summarizeTicket(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("Summary"));
+
+        // Act
+        TicketSummary first = service.summarize(ticket).get();
+        service.summarize(ticket).get();
+
+        // Assert
+        assertEquals("Summary", first.summary());
+        ArgumentCaptor<String> conversation = ArgumentCaptor.forClass(String.class);
+        verify(aiService, times(2)).summarizeTicket(anyString(), anyString(), conversation.capture());
+        assertTrue(conversation.getAllValues().get(0).contains("(some earlier comments could not be summarized)"));
+        assertFalse(conversation.getAllValues().get(1).contains("could not be summarized"));
+        ArgumentCaptor<TicketAiSummary> saved = ArgumentCaptor.forClass(TicketAiSummary.class);
+        verify(summaryRepository).save(saved.capture());
+        assertEquals(39L, saved.getValue().getLastCommentId());
+        assertEquals(1L, service.getStats().get("degradedNotStored"));
+    }
+
+    @Test
+    @DisplayName("Should serve the stored summary with no AI calls when no comments were added")
+    void testSummarize_UnchangedTicketUsesStoredSummary() throws Exception {
+        // Arrange
+        TicketSummaryService service = new TicketSummaryService(commentRepository, summaryRepository, aiService, 3000, 2000, 100, 24);
+        when(summaryRepository.findById(7L)).thenReturn(Optional.of(TicketAiSummary.builder()
+                .ticketId(7L).summary("Stored").lastCommentId(2L).commentCount(3).build()));
+        when(commentRepository.findByTicketIdAndIdGreaterThanOrderByIdAsc(7L, 2L)).thenReturn(List.of());
+        when(commentRepository.countByTicketId(7L)).thenReturn(3L);
+
+        // Act
+        TicketSummary summary = service.summarize(ticket).get();
+
+        // Assert
+        assertEquals(new TicketSummary("Stored", 0, 3), summary);
+        verifyNoInteractions(aiService);
+        verify(summaryRepository, never()).save(any());
+        verify(commentRepository, never()).findByTicketIdOrderByCreatedAtAsc(any());
+    }
+
+    @Test
+    @DisplayName("Should fold only new comments into the stored summary and store the result")
+    void testSummarize_NewCommentsUpdateStoredSummary() throws Exception {
+        // Arrange
+        TicketSummaryService service = new TicketSummaryService(commentRepository, summaryRepository, aiService, 3000, 2000, 100, 24);
+        TicketAiSummary stored = TicketAiSummary.builder()
+                .ticketId(7L).summary("Stored").lastCommentId(2L).commentCount(3).build();
+        when(summaryRepository.findById(7L)).thenReturn(Optional.of(stored));
+        when(commentRepository.findByTicketIdAndIdGreaterThanOrderByIdAsc(7L, 2L))
+                .thenReturn(comments(5).subList(3, 5));
+        when(commentRepository.countByTicketId(7L)).thenReturn(5L);
+        when(aiService.updateSummary(eq("Projector broken"), eq("Stored"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("Updated"));
+
+        // Act
+        TicketSummary summary = service.summarize(ticket).get();
+
+        // Assert
+        ArgumentCaptor<String> newComments = ArgumentCaptor.forClass(String.class);
+        verify(aiService).updateSummary(anyString(), anyString(), newComments.capture());
+        assertTrue(newComments.getValue().contains("Update 3") && newComments.getValue().contains("Update 4"));
+        assertFalse(newComments.getValue().contains("Update 2"));
+        assertEquals(new TicketSummary("Updated", 2, 3), summary);
+        ArgumentCaptor<TicketAiSummary> saved = ArgumentCaptor.forClass(TicketAiSummary.class);
+        verify(summaryRepository).save(saved.capture());
+        assertEquals("Updated", saved.getValue().getSummary());
+        assertEquals(4L, saved.getValue().getLastCommentId());
+        assertEquals(5, saved.getValue().getCommentCount());
+        verify(aiService, never()).summarizeTicket(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the summary in full when a comment below the stored id was added")
+    void testSummarize_LateCommentRebuildsSummary() throws Exception {
+        // Arrange
+        TicketSummaryService service = new TicketSummaryService(commentRepository, summaryRepository, aiService, 3000, 2000, 100, 24);
+        when(summaryRepository.findById(7L)).thenReturn(Optional.of(TicketAiSummary.builder()
+                .ticketId(7L).summary("Stored").lastCommentId(2L).commentCount(2).build()));
+        // Comment 1 committed after the summary that covered comments 0 and 2 was stored
+        when(commentRepository.findByTicketIdAndIdGreaterThanOrderByIdAsc(7L, 2L)).thenReturn(List.of());
+        when(commentRepository.countByTicketId(7L)).thenReturn(3L);
+        when(commentRepository.findByTicketIdOrderByCreatedAtAsc(7L)).thenReturn(comments(3));
+        when(aiService.summarizeTicket(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("Rebuilt"));
+
+        // Act
+        TicketSummary summary = service.summarize(ticket).get();
+
+        // Assert
+        assertEquals(new TicketSummary("Rebuilt", 3, 0), summary);
+        ArgumentCaptor<TicketAiSummary> saved = ArgumentCaptor.forClass(TicketAiSummary.class);
+        verify(summaryRepository).save(saved.capture());
+        assertEquals(2L, saved.getValue().getLastCommentId());
+        assertEquals(3, saved.getValue().getCommentCount());
+        verify(aiService, never()).updateSummary(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep older segments unchanged when comments are added")
+    void testWindow_OlderSegmentsAreStable() {
+        // Arrange
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lines.add("comment " + i + " " + "x".repeat(80));
+        }
+
+        // Act
+        TicketSummaryService.ThreadWindow before = TicketSummaryService.window(lines.subList(0, 40), 500);
+        TicketSummaryService.ThreadWindow after = TicketSummaryService.window(lines, 500);
+
+        // Assert
+        assertTrue(before.recent().length() <= 500);
+        assertTrue(after.recent().startsWith("comment 45 "));
+        assertEquals(before.olderSegments().get(0), after.olderSegments().get(0));
+        assertEquals(before.olderSegments().get(4), after.olderSegments().get(4));
+        assertEquals(50, after.recentCount() + after.olderSegments().stream()
+                .mapToInt(segment -> segment.split("\n").length).sum());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.helpdesk.service;
+
+import com.example.helpdesk.event.TicketStatusChangedEvent;
+import com.example.helpdesk.repository.TicketRepository;
+import com.example.helpdesk.repository.TicketTrainingRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TicketTriageQueue.
+ * Tests batch triage and write-back, backpressure when full, and the dead-letter list.
+ *
+ * @author Facility Helpdesk Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketTriageQueue Tests")
+class TicketTriageQueueTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private AiService aiService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TicketTriageQueue triageQueue;
+
+    @AfterEach
+    void tearDown() {
+        if (triageQueue != null) {
+            triageQueue.stop();
+        }
+    }
+
+    private TicketTriageQueue triageQueue(int capacity) {
+        triageQueue = new TicketTriageQueue(ticketRepository, aiService, transactionManager, capacity, 1, 20, 10, 100);
+        return triageQueue;
+    }
+
+    private static TicketTrainingRow row(long id, String subject) {
+        return new TicketTrainingRow() {
+            public Long getId() { return id; }
+            public LocalDateTime getCreatedAt() { return LocalDateTime.of(2026, 1, 1, 9, 0); }
+            public String getSubject() { return subject; }
+            public String getDescription() { return subject + " in Lab 301"; }
+            public String getCategoryName() { return null; }
+            public String getPriority() { return "MEDIUM"; }
+        };
+    }
+
+    private static TicketStatusChangedEvent created(long ticketId) {
+        return new TicketStatusChangedEvent(ticketId, null, "CREATED", null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Should write back suggestions for a batch and dead-letter tickets without one")
+    void testProcessBatch_WritesSuggestionsAndDeadLettersFailures() {
+        // Arrange
+        TicketTriageQueue queue = triageQueue(10);
+        when(ticketRepository.findTrainingRowsByIdIn(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(row(1, "Projector broken"), row(2, "Sparks from outlet"), row(3, "Wifi down")));
+        when(aiService.triage(eq("Projector broken"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new TriageSuggestion("Hardware Issue", "MEDIUM", 0.9)));
+        when(aiService.triage(eq("Sparks from outlet"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new TriageSuggestion("Electrical Issue", "URGENT", 0.95)));
+        when(aiService.triage(eq("Wifi down"), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("upstream down")));
+
+        // Act
+        queue.processBatch(List.of(1L, 2L, 3L));
+
+        // Assert
+        verify(ticketRepository).updateTriageSuggestion(1L, "Hardware Issue", "MEDIUM", 0.9);
+        verify(ticketRepository).updateTriageSuggestion(2L, "Electrical Issue", "URGENT", 0.95);
+        verify(ticketRepository, never()).updateTriageSuggestion(eq(3L), any(), any(), any());
+        verify(transactionManager).commit(any());
+        assertEquals(List.of(3L), queue.getDeadLetters().stream().map(TicketTriageQueue.DeadLetter::ticketId).toList());
+        assertEquals(2L, queue.getStats().get("triaged"));
+    }
+
+    @Test
+    @DisplayName("Should refuse tickets once the queue is full and let them be retried later")
+    void testEnqueue_FullQueueDeadLettersThenRetries() {
+        // Arrange
+        TicketTriageQueue queue = triageQueue(2);
+        when(aiService.isSuggestionAvailable()).thenReturn(true);
+        queue.onTicketStatusChanged(created(1));
+        queue.onTicketStatusChanged(created(2));
+
+        // Act
+        long start = System.nanoTime();
+        queue.onTicketStatusChanged(created(3));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(waitedMs < 1_000, "waited " + waitedMs + " ms");
+        assertEquals(1L, queue.getStats().get("rejectedQueueFull"));
+        assertEquals("Queue full", queue.getDeadLetters().get(0).reason());
+        assertEquals(0, queue.retryDeadLetters());
+        assertEquals(1, queue.getDeadLetters().size());
+    }
+
+    @Test
+    @DisplayName("Should only queue newly created tickets, and none while suggestions are unavailable")
+    void testOnTicketStatusChanged_QueuesOnlyCreations() {
+        // Arrange
+        TicketTriageQueue queue = triageQueue(10);
+        when(aiService.isSuggestionAvailable()).thenReturn(true, false);
+
+        // Act
+        queue.onTicketStatusChanged(new TicketStatusChangedEvent(5L, "CREATED", "ASSIGNED", null, null, null, 9L, null));
+        queue.onTicketStatusChanged(created(6));
+        queue.onTicketStatusChanged(created(7));
+
+        // Assert
+        assertEquals(1L, queue.getStats().get("enqueued"));
+        assertEquals(1, queue.getStats().get("queued"));
+        assertEquals(1L, queue.getStats().get("skippedUnavailable"));
+    }
+
+    @Test
+    @DisplayName("Should triage queued tickets on worker threads")
+    void testStart_WorkersDrainQueue() throws Exception {
+        // Arrange
+        TicketTriageQueue queue = triageQueue(10);
+        when(ticketRepository.findTrainingRowsByIdIn(any()))
+                .thenAnswer(call -> call.<List<Long>>getArgument(0).stream()
+                        .map(id -> row(id, "Projector broken " + id)).toList());
+        when(aiService.triage(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new TriageSuggestion("Hardware Issue", "HIGH", 0.85)));
+        for (long id = 1; id <= 5; id++) {
+            assertTrue(queue.enqueue(id));
+        }
+
+        // Act
+        queue.start();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while ((Long) queue.getStats().get("triaged") < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(5L, queue.getStats().get("triaged"));
+        verify(ticketRepository, times(5)).updateTriageSuggestion(anyLong(), eq("Hardware Issue"), eq("HIGH"), eq(0.85));
+        assertTrue(queue.getDeadLetters().isEmpty());
+    }
+}